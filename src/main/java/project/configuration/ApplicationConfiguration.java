@@ -12,17 +12,17 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import project.service.repository.AuthUserRepository;
+import project.service.AuthUserCache;
 
 @Configuration
 @RequiredArgsConstructor
 @ComponentScan
 public class ApplicationConfiguration {
-    private final AuthUserRepository repository;
+    private final AuthUserCache userCache;
     @Bean
     public UserDetailsService userDetailsService() {
         return (UserDetailsService) username
-                -> repository.findAuthUserByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+                -> userCache.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found."));
     }
     @Bean
     public AuthenticationProvider authenticationProvider() {
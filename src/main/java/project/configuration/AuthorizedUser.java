@@ -0,0 +1,15 @@
+package project.configuration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller parameter of type AuthUser that receives the authenticated user of the
+ * current request, see AuthorizedUserArgumentResolver
+ **/
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuthorizedUser {
+}
@@ -0,0 +1,59 @@
+package project.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+import project.model.user.AuthUser;
+import project.service.AuthUserService;
+
+/**
+ * Resolves {@link AuthorizedUser} parameters to the AuthUser of the current request.
+ * The principal put into the security context by JwtAuthenticationFilter already is the AuthUser,
+ * so it is reused as is; only other principals fall back to a lookup by username.
+ * The result is memoized as a request attribute, every further parameter in the same request gets it for free.
+ **/
+@Component
+@RequiredArgsConstructor
+public class AuthorizedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = AuthorizedUserArgumentResolver.class.getName() + ".user";
+    private static final String USER_NOT_FOUND_MESSAGE = "User not found.";
+
+    private final AuthUserService userService;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(AuthorizedUser.class)
+                && AuthUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                    NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object memoized = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memoized instanceof AuthUser user) return user;
+
+        AuthUser user = resolveUser(SecurityContextHolder.getContext().getAuthentication());
+        webRequest.setAttribute(ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    private AuthUser resolveUser(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE);
+
+        if (authentication.getPrincipal() instanceof AuthUser user) return user;
+
+        return userService.findAuthUserByUsername(authentication.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
+    }
+}
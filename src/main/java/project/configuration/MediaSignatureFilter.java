@@ -0,0 +1,58 @@
+package project.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import project.service.MediaUrlService;
+
+import java.io.IOException;
+
+/**
+ * Guards /api/media, which the security filter chain ignores: a request passes only with an
+ * unexpired signature issued by MediaUrlService for exactly the requested image and kind.
+ * Verification is a single HMAC, there is no user lookup and no database access.
+ **/
+@Component
+@RequiredArgsConstructor
+public class MediaSignatureFilter extends OncePerRequestFilter {
+
+    private final MediaUrlService mediaUrlService;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !mediaPath(request).startsWith(MediaUrlService.MEDIA_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        // "<kind>/<imageId>"
+        String[] resource = mediaPath(request).substring(MediaUrlService.MEDIA_PATH.length() + 1).split("/");
+        if (resource.length != 2 || !verified(resource[0], resource[1], request)) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean verified(String kind, String imageId, HttpServletRequest request) {
+        try {
+            long expiresAt = Long.parseLong(request.getParameter("expires"));
+            return mediaUrlService.verify(kind, imageId, expiresAt, request.getParameter("signature"));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String mediaPath(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
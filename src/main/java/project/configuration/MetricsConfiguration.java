@@ -0,0 +1,51 @@
+package project.configuration;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.service.AncestryResolver;
+import project.service.AuthUserCache;
+import project.service.ImageImportService;
+import project.service.JobService;
+import project.service.JwtService;
+import project.service.MembershipCache;
+
+/**
+ * Application meters on top of what Actuator instruments by itself (http.server.requests per
+ * endpoint, mongodb.driver.commands per collection and command, JVM). Everything is scraped from
+ * /actuator/prometheus.
+ **/
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * hit rates, sizes and evictions of the in-process caches, same names as /api/caches/stats
+     **/
+    @Bean
+    public MeterBinder cacheMetrics(AuthUserCache userCache,
+                                    MembershipCache membershipCache,
+                                    JwtService jwtService,
+                                    AncestryResolver ancestryResolver) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, userCache.getUsers(), "users");
+            CaffeineCacheMetrics.monitor(registry, membershipCache.getDatasetRoles(), "datasetRoles");
+            CaffeineCacheMetrics.monitor(registry, membershipCache.getProjectRoles(), "projectRoles");
+            CaffeineCacheMetrics.monitor(registry, jwtService.getVerifiedTokens(), "verifiedTokens");
+            CaffeineCacheMetrics.monitor(registry, ancestryResolver.getParents(), "ancestry");
+        };
+    }
+
+    /**
+     * queue depth, active threads and completed tasks of the background job and import pools
+     **/
+    @Bean
+    public MeterBinder executorMetrics(JobService jobService, ImageImportService importService) {
+        return registry -> {
+            new ExecutorServiceMetrics(jobService.getWorkers(), "jobs", Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(importService.getWriters(), "imageImport", Tags.empty()).bindTo(registry);
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package project.configuration;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import project.model.image.ObjectGeometry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+@Configuration
+public class MongoConfiguration {
+
+    static final String VERTICES_FIELD = "vertices";
+    static final String COORDINATES_FIELD = "coordinates";
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                GeometryWritingConverter.INSTANCE,
+                GeometryReadingConverter.INSTANCE));
+    }
+
+    /**
+     * Packs the coordinates as little-endian doubles x0, y0, x1, y1, ... into a single binary,
+     * which is far smaller than a BSON array (every array element also carries its index as key).
+     **/
+    @WritingConverter
+    enum GeometryWritingConverter implements Converter<ObjectGeometry, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(ObjectGeometry geometry) {
+            double[] x = geometry.getX() != null ? geometry.getX() : new double[0];
+            double[] y = geometry.getY() != null ? geometry.getY() : new double[0];
+            int vertices = Math.min(x.length, y.length);
+
+            ByteBuffer buffer = ByteBuffer.allocate(vertices * 2 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < vertices; i++) {
+                buffer.putDouble(x[i]);
+                buffer.putDouble(y[i]);
+            }
+            return new Document(VERTICES_FIELD, vertices).append(COORDINATES_FIELD, new Binary(buffer.array()));
+        }
+    }
+
+    @ReadingConverter
+    enum GeometryReadingConverter implements Converter<Document, ObjectGeometry> {
+        INSTANCE;
+
+        @Override
+        public ObjectGeometry convert(Document source) {
+            Object coordinates = source.get(COORDINATES_FIELD);
+            byte[] bytes = coordinates instanceof Binary binary ? binary.getData()
+                    : coordinates instanceof byte[] raw ? raw : new byte[0];
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            int vertices = bytes.length / (2 * Double.BYTES);
+            double[] x = new double[vertices];
+            double[] y = new double[vertices];
+            for (int i = 0; i < vertices; i++) {
+                x[i] = buffer.getDouble();
+                y[i] = buffer.getDouble();
+            }
+            return new ObjectGeometry(x, y);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package project.configuration;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import project.model.user.AuthUser;
+import project.model.user.SystemPermission;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates {@code hasPermission(null, 'admin:read,researcher:read')} in @PreAuthorize expressions.
+ * The comma separated permissions are alternatives, the check passes when the role of the
+ * authenticated AuthUser holds any of them. Each expression string is parsed into a permission
+ * mask once, after that a check is a single bitwise and against SystemRole.permissionMask.
+ **/
+@Component
+public class PermissionMaskEvaluator implements PermissionEvaluator {
+
+    private final ConcurrentHashMap<String, Long> masks = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        if (authentication == null || !authentication.isAuthenticated() || !(permission instanceof String required))
+            return false;
+
+        long mask = masks.computeIfAbsent(required, PermissionMaskEvaluator::parseMask);
+        if (authentication.getPrincipal() instanceof AuthUser user)
+            return user.getRole() != null && user.getRole().hasAnyPermission(mask);
+
+        // principals not issued by this application only carry their authority strings
+        return (authoritiesMask(authentication) & mask) != 0;
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        return hasPermission(authentication, null, permission);
+    }
+
+    private static long parseMask(String permissions) {
+        long mask = 0;
+        for (String name : permissions.split(",")) {
+            SystemPermission permission = SystemPermission.fromPermission(name.trim());
+            if (permission == null)
+                throw new IllegalArgumentException("Unknown permission '" + name.trim() + "'.");
+            mask |= permission.bit();
+        }
+        return mask;
+    }
+
+    private static long authoritiesMask(Authentication authentication) {
+        long mask = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            SystemPermission permission = SystemPermission.fromPermission(authority.getAuthority());
+            if (permission != null) mask |= permission.bit();
+        }
+        return mask;
+    }
+}
@@ -1,13 +1,18 @@
 package project.configuration;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -35,6 +40,10 @@ public class SecurityConfiguration  {
 
     private static final String[] WHITE_LIST_URL = {
             "/api/auth/**",};
+
+    // signed image URLs, verified by MediaSignatureFilter instead of the JWT chain
+    private static final String MEDIA_URL = "/api/media/**";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
@@ -44,6 +53,11 @@ public class SecurityConfiguration  {
                 .authorizeRequests()
                 .requestMatchers(WHITE_LIST_URL)
                 .permitAll()
+                // liveness for load balancers, metrics only for admins (scrape with an admin Bearer token)
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class))
+                .permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint())
+                .hasAuthority(ADMIN_READ.getPermission())
 
                 .and()
                 .sessionManagement()
@@ -55,6 +69,21 @@ public class SecurityConfiguration  {
     }
 
 
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(MEDIA_URL);
+    }
+
+    /**
+     * hasPermission(...) in @PreAuthorize expressions is answered with permission masks, see PermissionMaskEvaluator
+     **/
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler(PermissionMaskEvaluator permissionEvaluator) {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setPermissionEvaluator(permissionEvaluator);
+        return handler;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         final org.springframework.web.cors.CorsConfiguration configuration = new CorsConfiguration();
@@ -64,10 +93,10 @@ public class SecurityConfiguration  {
         // setAllowCredentials(true) is important, otherwise:
         // The value of the 'Access-Control-Allow-Origin' header in the response must not be the wildcard '*' when the request's credentials mode is 'include'.
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "Accept-Ranges", "Content-Range", "Content-Length", "ETag", "Content-Disposition", "Location"));
         // setAllowedHeaders is important! Without it, OPTIONS preflight request
         // will fail with 403 Invalid CORS request
-        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type", "Range", "If-Range"));
         final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -0,0 +1,37 @@
+package project.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import project.model.response.CacheStatistics;
+import project.service.AncestryResolver;
+import project.service.AuthUserCache;
+import project.service.JwtService;
+import project.service.MembershipCache;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/caches")
+@RequiredArgsConstructor
+@CrossOrigin(methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
+@PreAuthorize("hasRole('SYSTEM_ADMIN')")
+public class CacheController {
+
+    private final AuthUserCache userCache;
+    private final MembershipCache membershipCache;
+    private final JwtService jwtService;
+    private final AncestryResolver ancestryResolver;
+
+    @PreAuthorize("hasPermission(null, 'admin:read')")
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        return ResponseEntity.ok(List.of(
+                CacheStatistics.of("users", userCache.getUsers()),
+                CacheStatistics.of("datasetRoles", membershipCache.getDatasetRoles()),
+                CacheStatistics.of("projectRoles", membershipCache.getProjectRoles()),
+                CacheStatistics.of("verifiedTokens", jwtService.getVerifiedTokens()),
+                CacheStatistics.of("ancestry", ancestryResolver.getParents())));
+    }
+}
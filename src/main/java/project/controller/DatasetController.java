@@ -1,16 +1,20 @@
 package project.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.configuration.AuthorizedUser;
 import project.model.dataset.Dataset;
 import project.model.dataset.UserDataset;
 import project.model.dataset.UserDatasetDetails;
+import project.model.job.Job;
 import project.model.project.Project;
 import project.model.user.AuthUser;
 import project.model.user.SystemRole;
@@ -30,27 +34,26 @@ public class DatasetController {
     private final DatasetService datasetService;
     private final AuthUserService userService;
     private final ProjectService projectService;
+    private final DatasetExportService exportService;
 
     @GetMapping("/getAll")
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     public ResponseEntity<?> getAllDatasets() {
         return ResponseEntity.ok(datasetService.findAll());
     }
 
     @GetMapping("/getAllByName/{name}")
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     public ResponseEntity<?> getAllDatasetsByName(@PathVariable String name) {
         return ResponseEntity.ok(datasetService.findAllByName(name));
     }
 
     @GetMapping("/getAllByOwnerId/{ownerId}")
-    @PreAuthorize("hasAnyAuthority('admin:read','researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getAllByOwnerId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String ownerId
     ) {
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
-
         if (!fetchedUser.isAdmin() && !fetchedUser.getId().equals(ownerId))
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(PERMISSION_DENIED_MESSAGE);
 
@@ -60,15 +63,11 @@ public class DatasetController {
 
 
     @GetMapping("/getAllByProjectId/{projectId}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getAllDatasetsByProjectId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String projectId
     ) {
-        // Retrieve and validate the authenticated user
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
-
-
         // Retrieve and validate the project
         Project fetchedProject = projectService.findById(projectId);
 
@@ -83,18 +82,29 @@ public class DatasetController {
         return ResponseEntity.ok(datasetService.findAllByProjectId(projectId));
     }
 
+    @GetMapping("/getPageByProjectId/{projectId}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<?> getDatasetsPageByProjectId(
+            @AuthorizedUser AuthUser fetchedUser,
+            @PathVariable String projectId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        checkProjectAuthorization(fetchedUser, projectId);
+
+        return ResponseEntity.ok(datasetService.findPageByProjectId(projectId, cursor, limit));
+    }
+
     @GetMapping("/getById/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getDatasetById(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String id) {
         // Retrieve and validate the dataset
 //        Dataset dataset = datasetService.findById(id)
 //                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, DATASET_NOT_FOUND_MESSAGE));
 
 
-        // Retrieve and validate the authenticated user
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
 
         // Retrieve and validate the dataset
         Dataset dataset = datasetService.findById(id);
@@ -109,14 +119,31 @@ public class DatasetController {
 
 
 
+    /**
+     * Streams the whole dataset (image files plus objects and points as JSON) as one ZIP archive.
+     **/
+    @GetMapping("/export/{id}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<StreamingResponseBody> exportDataset(
+            @AuthorizedUser AuthUser fetchedUser,
+            @PathVariable String id) {
+        checkDatasetAuthorization(fetchedUser, id);
+
+        Dataset dataset = exportService.findExportedDataset(id);
+        StreamingResponseBody body = out -> exportService.exportDataset(dataset, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("dataset-" + dataset.getId() + ".zip").build().toString())
+                .body(body);
+    }
+
     @PostMapping("/create")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> saveDatasetBy(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorizedUser,
             @RequestBody Dataset request
     ) {
-        // Retrieve and validate the authenticated user
-        AuthUser authorizedUser = getAuthorizedUser(authentication);
         // Retrieve and validate the associated project
         String fetchedProject = projectService.findById(request.getProjectId()).getId();
         // Authorization check for non-admin users
@@ -130,16 +157,12 @@ public class DatasetController {
 
 
     @PutMapping("/update/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:update', 'researcher:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update,researcher:update')")
     public ResponseEntity<?> updateDataset(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String id,
             @RequestBody Dataset request
     ) {
-
-        // Retrieve and validate the authenticated user
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
-
         // Ensure dataset exists
         datasetService.findById(id);
         // Retrieve and validate the associated project
@@ -155,34 +178,28 @@ public class DatasetController {
 
 
     @DeleteMapping("/delete/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteDataset(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String id
     ) {
-
-        // Retrieve and validate the authenticated user
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
-
         // Ensure the dataset exists before attempting to delete
         Dataset dataset = datasetService.findById(id);
         // Authorization check to see if user has the rights to delete the dataset
         checkDatasetAuthorization(fetchedUser, id);
 
-        // Perform the delete operation
-        ;
-        return ResponseEntity.ok(datasetService.deleteDataset(id));
+        // Deletion runs as a background job, its state is polled through /api/jobs
+        Job job = datasetService.startDatasetDeletion(dataset.getId(), fetchedUser.getId());
+        return ResponseEntity.accepted().location(JobController.jobLocation(job)).body(job);
     }
 
 
     @DeleteMapping("/deleteAllByProjectId/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteDatasetsByProjectId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String id
     ) {
-
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
         Project fetchedProject = projectService.findById(id);
 
         checkProjectAuthorization(fetchedUser, fetchedProject.getId());
@@ -192,13 +209,11 @@ public class DatasetController {
     }
 
     @PostMapping("/users/addUserToDataset")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> addUserToDataset(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody UserDataset request
     ) {
-
-        AuthUser authorized = getAuthorizedUser(authentication);
         datasetService.findById(request.getDatasetId());
 
         AuthUser newUser = userService
@@ -213,13 +228,11 @@ public class DatasetController {
 
 
     @DeleteMapping("/users/deleteUserFromDataset")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteUserFromDataset(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody UserDataset request
     ) {
-        AuthUser authorized = getAuthorizedUser(authentication);
-
         AuthUser deletedUser = userService.findAuthUserById(request.getUserId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
 
@@ -234,14 +247,13 @@ public class DatasetController {
     }
 
     @GetMapping("/users/getByDatasetId/{datasetId}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> findUsersByDatasetId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String datasetId) {
         Dataset dataset = datasetService.findById(datasetId);
         Project project = projectService.findById(dataset.getProjectId());
 
-        AuthUser authorized = getAuthorizedUser(authentication);
 
         checkProjectAuthorization(authorized, project.getId());
         checkDatasetAuthorization(authorized, datasetId);
@@ -251,13 +263,11 @@ public class DatasetController {
     }
 
     @GetMapping("/users/getByDatasetIdAndUserId")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> findUserByDatasetIdAndUserId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody UserDataset request
     ) {
-        // Validate and retrieve the authenticated user
-        AuthUser authorized = getAuthorizedUser(authentication);
         // Validate and retrieve the user by ID
         AuthUser fetchedUser = userService.findAuthUserById(request.getUserId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "User not found for given ID."));
@@ -273,12 +283,6 @@ public class DatasetController {
         return ResponseEntity.ok(new UserDatasetDetails(fetchedUser, fetchedLink));
     }
 
-
-    private AuthUser getAuthorizedUser(UserDetails authentication) {
-        return userService.findAuthUserByUsername(authentication.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
-    }
-
     private void checkProjectAuthorization(AuthUser authorizedUser, String projectId) {
         if (projectService.userContainsAuthorityToEdit(projectId, authorizedUser.getId()) || authorizedUser.isAdmin())
             return;
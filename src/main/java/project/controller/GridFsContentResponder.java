@@ -0,0 +1,105 @@
+package project.controller;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.service.ImageService;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class GridFsContentResponder {
+
+    private static final String CONTENT_TYPE_FIELD = "_contentType";
+    private static final String BYTES_UNIT = "bytes";
+
+    private final ImageService imageService;
+
+    /**
+     * ResponseEntity<StreamingResponseBody> respond(GridFSFile file, String fallbackContentType, HttpHeaders requestHeaders)
+     * streams the GridFS file to the client without loading it into memory.
+     * A single satisfiable Range (optionally guarded by If-Range) is answered with 206 and only the
+     * requested bytes, an unsatisfiable one with 416. Multi-range requests get the full content.
+     **/
+    public ResponseEntity<StreamingResponseBody> respond(GridFSFile file, String fallbackContentType, HttpHeaders requestHeaders) {
+        long length = file.getLength();
+        String eTag = "\"" + file.getObjectId().toHexString() + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+        headers.setETag(eTag);
+        headers.setLastModified(file.getUploadDate().getTime());
+        headers.setContentType(resolveContentType(file, fallbackContentType));
+
+        List<HttpRange> ranges = parseRanges(requestHeaders);
+        if (ranges.size() != 1 || !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), eTag, file)) {
+            headers.setContentLength(length);
+            StreamingResponseBody body = out -> imageService.copyImageContent(file, out);
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+
+        long start = -1;
+        long end = -1;
+        try {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+        } catch (IllegalArgumentException ignored) {
+        }
+        if (start < 0 || end < start) {
+            headers.set(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " */" + length);
+            headers.setContentLength(0);
+            return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+
+        long offset = start;
+        long rangeLength = end - start + 1;
+        headers.set(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + end + "/" + length);
+        headers.setContentLength(rangeLength);
+        StreamingResponseBody body = out -> imageService.copyImageContent(file, offset, rangeLength, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    private List<HttpRange> parseRanges(HttpHeaders requestHeaders) {
+        try {
+            return requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            // a syntactically invalid Range header is ignored and the full content is served
+            return List.of();
+        }
+    }
+
+    private boolean ifRangeMatches(String ifRange, String eTag, GridFSFile file) {
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(eTag);
+
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return since == file.getUploadDate().getTime() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private MediaType resolveContentType(GridFSFile file, String fallbackContentType) {
+        Document metadata = file.getMetadata();
+        String contentType = metadata != null ? metadata.getString(CONTENT_TYPE_FIELD) : null;
+        if (contentType == null) contentType = fallbackContentType;
+
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
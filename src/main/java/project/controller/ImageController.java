@@ -1,21 +1,27 @@
 package project.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.configuration.AuthorizedUser;
 import project.model.image.Image;
 import project.model.image.ImageObject;
 import project.model.image.ObjectPoint;
+import project.model.job.Job;
 import project.model.user.AuthUser;
-import project.service.AuthUserService;
+import project.service.AncestryResolver;
 import project.service.DatasetService;
+import project.service.ImageDerivativeService;
+import project.service.ImageImportService;
 import project.service.ImageService;
+import project.service.MediaUrlService;
 
 import java.io.IOException;
 import java.util.List;
@@ -28,90 +34,165 @@ import java.util.List;
 
 public class ImageController {
 
-    private static final String USER_NOT_FOUND_MESSAGE = "User not found.";
     private static final String PERMISSION_DENIED_MESSAGE = "User doesn't have required authority to provide this operation.";
+    private static final String INCLUDE_DATA = "data";
 
 
     private final ImageService imageService;
     private final DatasetService datasetService;
-    private final AuthUserService userService;
+    private final GridFsContentResponder contentResponder;
+    private final ImageDerivativeService derivativeService;
+    private final ImageImportService importService;
+    private final AncestryResolver ancestryResolver;
+    private final MediaUrlService mediaUrlService;
 //    private final GridFsTemplate gridFsTemplate;
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/getAll")
-    public ResponseEntity<List<Image>> getAllImages() {
-        return ResponseEntity.ok(imageService.findAllImages());
+    public ResponseEntity<?> getAllImages(
+            @RequestParam(value = "include", required = false) String include
+    ) throws IOException {
+        if (includesData(include)) return ResponseEntity.ok(imageService.loadImageData(imageService.findAllImages()));
+        return ResponseEntity.ok(mediaUrlService.withUrls(imageService.findAllImageSummaries()));
     }
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/findAllByCatagoryContains")
-    public ResponseEntity<List<Image>> findAllByCatagoryContains(
-            @RequestParam("category") String category
-    ) {
-        return ResponseEntity.ok(imageService.findAllImagesByCategory(category));
+    public ResponseEntity<?> findAllByCatagoryContains(
+            @RequestParam("category") String category,
+            @RequestParam(value = "include", required = false) String include
+    ) throws IOException {
+        if (includesData(include))
+            return ResponseEntity.ok(imageService.loadImageData(imageService.findAllImagesByCategory(category)));
+        return ResponseEntity.ok(mediaUrlService.withUrls(imageService.findImageSummariesByCategory(category)));
     }
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/findAllByCatagories")
-    public ResponseEntity<List<Image>> findAllByCatagories(
-            @RequestParam("categories") List<String> categories
+    public ResponseEntity<?> findAllByCatagories(
+            @RequestParam("categories") List<String> categories,
+            @RequestParam(value = "include", required = false) String include
 
-    ) {
-        return ResponseEntity.ok(imageService.findAllImagesByCategoriesContainingAll(categories));
+    ) throws IOException {
+        if (includesData(include))
+            return ResponseEntity.ok(imageService.loadImageData(imageService.findAllImagesByCategoriesContainingAll(categories)));
+        return ResponseEntity.ok(mediaUrlService.withUrls(imageService.findImageSummariesByCategoriesContainingAll(categories)));
     }
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/findAllByCatagoriesAndDatasetId")
     public ResponseEntity<?> findAllByCatagories(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestParam("datasetId") String datasetId,
-            @RequestParam("categories") List<String> categories
+            @RequestParam("categories") List<String> categories,
+            @RequestParam(value = "include", required = false) String include
 
-    ) {
-        AuthUser authorized = getAuthorizedUser(authentication);
+    ) throws IOException {
         checkDatasetAuthorization(authorized, datasetId);
 
-
-        return ResponseEntity.ok(imageService.findAllImagesByCategoriesContainingAllAndDatasetId(categories, datasetId));
+        if (includesData(include))
+            return ResponseEntity.ok(imageService.loadImageData(
+                    imageService.findAllImagesByCategoriesContainingAllAndDatasetId(categories, datasetId)));
+        return ResponseEntity.ok(mediaUrlService.withUrls(imageService.findImageSummariesByCategoriesContainingAllAndDatasetId(categories, datasetId)));
     }
 
 
     @PostMapping("/save")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> saveImage(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestParam("name") String name,
             @RequestParam("data") MultipartFile data,
             @RequestParam("datasetId") String datasetId,
             @RequestParam("categories") List<String> categories
     ) throws IOException {
-
-        AuthUser authorized = getAuthorizedUser(authentication);
         checkDatasetAuthorization(authorized, datasetId);
 
-        Image image = new Image(null, name, data.getContentType(), data.getBytes(), datasetId, categories);
+        Image image = Image.builder()
+                .name(name)
+                .format(data.getContentType())
+                .datasetId(datasetId)
+                .categories(categories)
+                .build();
         return ResponseEntity.ok(imageService.saveImage(image, data));
     }
 
 
+    /**
+     * Streaming alternative to /save: the request body is the raw image (its Content-Type is
+     * stored as the format) and is piped into GridFS without being buffered on the heap.
+     **/
+    @PostMapping("/upload")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
+    public ResponseEntity<?> uploadImage(
+            @AuthorizedUser AuthUser authorized,
+            @RequestParam("name") String name,
+            @RequestParam("datasetId") String datasetId,
+            @RequestParam("categories") List<String> categories,
+            HttpServletRequest request
+    ) throws IOException {
+        checkDatasetAuthorization(authorized, datasetId);
+
+        Image image = Image.builder()
+                .name(name)
+                .format(request.getContentType())
+                .datasetId(datasetId)
+                .categories(categories)
+                .build();
+        return ResponseEntity.ok(imageService.storeImage(image, request.getInputStream(), name, request.getContentType()));
+    }
+
+    /**
+     * Bulk ingestion: the request body is a ZIP or (gzipped) TAR archive whose image entries are all
+     * stored into the dataset. Dataset authorization is checked once for the whole archive.
+     **/
+    @PostMapping("/import")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
+    public ResponseEntity<?> importImages(
+            @AuthorizedUser AuthUser authorized,
+            @RequestParam("datasetId") String datasetId,
+            @RequestParam(value = "categories", required = false) List<String> categories,
+            HttpServletRequest request
+    ) throws IOException {
+        checkDatasetAuthorization(authorized, datasetId);
+
+        return ResponseEntity.ok(importService.importArchive(datasetId,
+                categories != null ? categories : List.of(), request.getInputStream()));
+    }
+
+
     @GetMapping("/getAllByDatasetId/{datasetId}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getAllImagesByDatasetId(
-            @AuthenticationPrincipal UserDetails authentication,
-            @PathVariable String datasetId    ) {
-        AuthUser authorized = getAuthorizedUser(authentication);
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String datasetId,
+            @RequestParam(value = "include", required = false) String include    ) throws IOException {
+
+        checkDatasetAuthorization(authorized, datasetId);
+
+        if (includesData(include))
+            return ResponseEntity.ok(imageService.loadImageData(imageService.findAllImagesByDatasetId(datasetId)));
+        return ResponseEntity.ok(mediaUrlService.withUrls(imageService.findImageSummariesByDatasetId(datasetId)));
+    }
+
+    @GetMapping("/getPageByDatasetId/{datasetId}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<?> getPageByDatasetId(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String datasetId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit    ) {
 
         checkDatasetAuthorization(authorized, datasetId);
 
-        return ResponseEntity.ok(imageService.findAllImagesByDatasetId(datasetId));
+        return ResponseEntity.ok(mediaUrlService.withUrls(imageService.findImageSummaryPageByDatasetId(datasetId, cursor, limit)));
     }
 
     @GetMapping("/getById/{imageId}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getById(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String imageId    ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
         Image existed = imageService.findImageById(imageId);
 
         checkDatasetAuthorization(authorized, existed.getDatasetId());
@@ -119,177 +200,265 @@ public class ImageController {
         return ResponseEntity.ok(existed);
     }
 
+    @GetMapping("/download/{imageId}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<StreamingResponseBody> downloadById(
+            @AuthorizedUser AuthUser authorized,
+            @RequestHeader HttpHeaders headers,
+            @PathVariable String imageId    ) {
+        Image existed = imageService.findImageMetadataById(imageId);
+
+        checkDatasetAuthorization(authorized, existed.getDatasetId());
+
+        return contentResponder.respond(imageService.findImageFile(existed), existed.getFormat(), headers);
+    }
+
+    @GetMapping("/thumbnail/{imageId}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<StreamingResponseBody> thumbnailById(
+            @AuthorizedUser AuthUser authorized,
+            @RequestHeader HttpHeaders headers,
+            @PathVariable String imageId,
+            @RequestParam(value = "size", defaultValue = "256") int size    ) throws IOException {
+        Image existed = imageService.findImageMetadataById(imageId);
+
+        checkDatasetAuthorization(authorized, existed.getDatasetId());
+
+        return contentResponder.respond(derivativeService.findOrCreateDerivative(existed, size), null, headers);
+    }
+
+    @PutMapping("/move/{imageId}")
+    @PreAuthorize("hasPermission(null, 'admin:update,researcher:update')")
+    public ResponseEntity<?> moveImage(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String imageId,
+            @RequestParam("datasetId") String datasetId
+    ) {
+        checkDatasetAuthorization(authorized, ancestryResolver.datasetIdOfImage(imageId));
+        checkDatasetAuthorization(authorized, datasetId);
+
+        return ResponseEntity.ok(imageService.moveImage(imageId, datasetId));
+    }
+
     @DeleteMapping("/deleteById/{imageId}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteById(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String imageId    ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        Image existed = imageService.findImageById(imageId);
-
-        checkDatasetAuthorization(authorized, existed.getDatasetId());
+        checkDatasetAuthorization(authorized, ancestryResolver.datasetIdOfImage(imageId));
 
         return ResponseEntity.ok(imageService.deleteImage(imageId));
     }
 
     @DeleteMapping("/deleteAllByDatasetId/{datasetId}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteAllByDatasetId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String datasetId    ) {
-        AuthUser authorized = getAuthorizedUser(authentication);
         checkDatasetAuthorization(authorized, datasetId);
 
         return ResponseEntity.ok(imageService.deleteAllImagesByDatasetId(datasetId));
     }
 
 
+    /**
+     * Deletes all images of the dataset with their annotations in a background job (202 Accepted).
+     **/
+    @DeleteMapping("/clearDataset/{datasetId}")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
+    public ResponseEntity<?> clearDataset(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String datasetId    ) {
+        checkDatasetAuthorization(authorized, datasetId);
+
+        Job job = imageService.startDatasetClearing(datasetId, authorized.getId());
+        return ResponseEntity.accepted().location(JobController.jobLocation(job)).body(job);
+    }
+
+
     @GetMapping("/objects/findAll")
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     public ResponseEntity<?> findAllObjects() {
         return ResponseEntity.ok(imageService.findAllImageObjects());
     }
 
     @GetMapping("/objects/findAllByImageId/{imageId}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> findAllObjectsByImageId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String imageId
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        String datasetId = imageService.findImageById(imageId).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfImage(imageId);
         checkDatasetAuthorization(authorized, datasetId);
 
         return ResponseEntity.ok(imageService.findAllImageObjectsByImageId(imageId));
     }
 
+    /**
+     * All objects of the dataset through the datasetId copied onto each object, one indexed query.
+     **/
+    @GetMapping("/objects/findAllByDatasetId/{datasetId}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<?> findAllObjectsByDatasetId(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String datasetId
+    ) {
+        checkDatasetAuthorization(authorized, datasetId);
+
+        return ResponseEntity.ok(imageService.findAllImageObjectsByDatasetId(datasetId));
+    }
+
+    @GetMapping("/objects/getById/{id}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<?> findObjectById(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String id
+    ) {
+        ImageObject object = imageService.findImageObjectById(id);
+        String datasetId = ancestryResolver.datasetIdOfImage(object.getImageId());
+        checkDatasetAuthorization(authorized, datasetId);
+
+        return ResponseEntity.ok(object);
+    }
+
     @PostMapping("/objects/save")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> saveImageObject(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody ImageObject imageObject
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        String datasetId = imageService.findImageById(imageObject.getImageId()).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfImage(imageObject.getImageId());
         checkDatasetAuthorization(authorized, datasetId);
 
         return ResponseEntity.ok(imageService.saveImageObject(imageObject));
     }
 
+    /**
+     * Saves the complete annotation set of one image (objects with their geometry) in one request;
+     * objects of the image that are not in the body are deleted.
+     **/
+    @PutMapping("/objects/saveAllByImageId/{imageId}")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
+    public ResponseEntity<?> saveAllImageObjects(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String imageId,
+            @RequestBody List<ImageObject> imageObjects
+    ) {
+        String datasetId = ancestryResolver.datasetIdOfImage(imageId);
+        checkDatasetAuthorization(authorized, datasetId);
+
+        return ResponseEntity.ok(imageService.saveAllImageObjects(imageId, imageObjects));
+    }
+
     @PutMapping("/objects/update/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:update', 'researcher:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update,researcher:update')")
     public ResponseEntity<?> updateImageObject(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String id,
             @RequestBody ImageObject imageObject
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        String datasetId = imageService.findImageById(imageObject.getImageId()).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfImage(imageObject.getImageId());
 
         checkDatasetAuthorization(authorized, datasetId);
+        // the object may be moved to another image, the caller must be allowed to edit its current one too
+        checkDatasetAuthorization(authorized, ancestryResolver.datasetIdOfObject(id));
 
         imageObject.setId(id);
         return ResponseEntity.ok(imageService.updateImageObject(imageObject));
     }
 
     @DeleteMapping("/objects/deleteById/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteImageObjectById(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String id
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        String imageId = imageService.findImageObjectById(id).getImageId();
-        String datasetId = imageService.findImageById(imageId).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfObject(id);
         checkDatasetAuthorization(authorized, datasetId);
         return ResponseEntity.ok(imageService.deleteImageObject(id));
     }
 
     @DeleteMapping("/objects/deleteAllByImageId/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteImageObjectsByImageId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String id
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        String datasetId = imageService.findImageById(id).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfImage(id);
         checkDatasetAuthorization(authorized, datasetId);
         return ResponseEntity.ok(imageService.deleteAllObjectByImageId(id));
     }
 
     @GetMapping("/objects/points/getAll")
-    @PreAuthorize("hasAnyAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     public ResponseEntity<?> getAllPoints() {
         return ResponseEntity.ok(imageService.findAllObjectPoints());
     }
 
+    @GetMapping("/objects/points/getPage")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
+    public ResponseEntity<?> getPointsPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(imageService.findObjectPointPage(cursor, limit));
+    }
+
     @GetMapping("/objects/points/getAllByObjectId/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getAllPointsByObjectId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String id
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        //fetch image by object.getImageId then fetch datasetId by image.getDatasetId
-        String imageId = imageService.findImageObjectById(id).getImageId();
-        String datasetId = imageService.findImageById(imageId).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfObject(id);
         checkDatasetAuthorization(authorized, datasetId);
         return ResponseEntity.ok(imageService.findAllObjectPointsByImageObjectId(id));
     }
 
     @PostMapping("/objects/points/save")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> saveObjectPoint(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody ObjectPoint objectPoint
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-
-        //fetch image by object.getImageId then fetch datasetId by image.getDatasetId
-        String imageId = imageService.findImageObjectById(objectPoint.getImageObjectId()).getImageId();
-        String datasetId = imageService.findImageById(imageId).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfObject(objectPoint.getImageObjectId());
 
         checkDatasetAuthorization(authorized, datasetId);
+        // an existing point may be moved from another object, whose outline is rebuilt as well
+        if (objectPoint.getId() != null && imageService.existsObjectPoint(objectPoint.getId()))
+            checkDatasetAuthorization(authorized, ancestryResolver.datasetIdOfPoint(objectPoint.getId()));
 
         return ResponseEntity.ok(imageService.saveObjectPoint(objectPoint));
     }
 
 
     @DeleteMapping("/objects/points/delete/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> deletePoint(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String id
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-
-        //fetch image by object.getImageId then fetch datasetId by image.getDatasetId
-        ObjectPoint fetched = imageService.findObjectPointById(id);
-        String imageId = imageService.findImageObjectById(fetched.getImageObjectId()).getImageId();
-        String datasetId = imageService.findImageById(imageId).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfPoint(id);
         checkDatasetAuthorization(authorized, datasetId);
         return ResponseEntity.ok(imageService.deleteObjectPoint(id));
     }
 
 
     @DeleteMapping("/objects/points/deleteAllByObjcetId/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> deleteAllPointByObjectId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String id
     ) throws IOException {
-        AuthUser authorized = getAuthorizedUser(authentication);
-        ImageObject object = imageService.findImageObjectById(id);
-        String imageId = imageService.findImageById(object.getImageId()).getId();
-        String datasetId = imageService.findImageById(imageId).getDatasetId();
+        String datasetId = ancestryResolver.datasetIdOfObject(id);
         checkDatasetAuthorization(authorized, datasetId);
         return ResponseEntity.ok(imageService.deleteAllObjectPointByObjectId(id));
     }
 
-    private AuthUser getAuthorizedUser(UserDetails authentication) {
-        return userService.findAuthUserByUsername(authentication.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
+    private boolean includesData(String include) {
+        return INCLUDE_DATA.equalsIgnoreCase(include);
     }
+
     private void checkDatasetAuthorization(AuthUser authorizedUser, String datasetId) {
 
         if (datasetService.userContainsAuthorityToEdit(datasetId, authorizedUser.getId()) || authorizedUser.isAdmin())
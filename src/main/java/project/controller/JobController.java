@@ -0,0 +1,73 @@
+package project.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import project.configuration.AuthorizedUser;
+import project.model.job.Job;
+import project.model.user.AuthUser;
+import project.service.JobService;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
+@PreAuthorize("hasAnyRole('SYSTEM_ADMIN', 'SYSTEM_RESEARCHER')")
+public class JobController {
+
+    private static final String PERMISSION_DENIED_MESSAGE = "User doesn't have required authority to provide this operation.";
+
+    private final JobService jobService;
+
+    static URI jobLocation(Job job) {
+        return URI.create("/api/jobs/getById/" + job.getId());
+    }
+
+    @GetMapping("/getById/{id}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<?> getJobById(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String id
+    ) {
+        Job job = jobService.findById(id);
+        checkJobAuthorization(authorized, job);
+
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/getAllByOwnerId/{ownerId}")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
+    public ResponseEntity<?> getAllJobsByOwnerId(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String ownerId
+    ) {
+        if (!authorized.isAdmin() && !authorized.getId().equals(ownerId))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(PERMISSION_DENIED_MESSAGE);
+
+        return ResponseEntity.ok(jobService.findAllByOwnerId(ownerId));
+    }
+
+    @PostMapping("/cancel/{id}")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
+    public ResponseEntity<?> cancelJob(
+            @AuthorizedUser AuthUser authorized,
+            @PathVariable String id
+    ) {
+        Job job = jobService.findById(id);
+        checkJobAuthorization(authorized, job);
+
+        return ResponseEntity.ok(jobService.cancel(id));
+    }
+
+    private void checkJobAuthorization(AuthUser authorizedUser, Job job) {
+        if (authorizedUser.isAdmin() || authorizedUser.getId().equals(job.getOwnerId()))
+            return;
+
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, PERMISSION_DENIED_MESSAGE);
+    }
+}
@@ -0,0 +1,58 @@
+package project.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.service.ImageDerivativeService;
+import project.service.ImageService;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Image bytes behind signed URLs (see MediaUrlService). Requests only get here after
+ * MediaSignatureFilter verified the signature, so there is no user or dataset check left to do.
+ **/
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+@CrossOrigin(methods = {RequestMethod.GET})
+public class MediaController {
+
+    private final ImageService imageService;
+    private final ImageDerivativeService derivativeService;
+    private final GridFsContentResponder contentResponder;
+
+    @GetMapping("/images/{imageId}")
+    public ResponseEntity<StreamingResponseBody> image(
+            @RequestHeader HttpHeaders headers,
+            @PathVariable String imageId,
+            @RequestParam("expires") long expires
+    ) {
+        return cacheUntil(contentResponder.respond(imageService.findImageFileByImageId(imageId), null, headers), expires);
+    }
+
+    @GetMapping("/thumbnails/{imageId}")
+    public ResponseEntity<StreamingResponseBody> thumbnail(
+            @RequestHeader HttpHeaders headers,
+            @PathVariable String imageId,
+            @RequestParam("expires") long expires,
+            @RequestParam(value = "size", defaultValue = "256") int size
+    ) throws IOException {
+        return cacheUntil(contentResponder.respond(derivativeService.findOrCreateDerivative(imageId, size), null, headers), expires);
+    }
+
+    /**
+     * lets the browser keep the bytes for as long as the URL itself is valid
+     **/
+    private ResponseEntity<StreamingResponseBody> cacheUntil(ResponseEntity<StreamingResponseBody> response, long expires) {
+        long remaining = Math.max(0, expires - System.currentTimeMillis() / 1000);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(remaining)).cachePrivate())
+                .body(response.getBody());
+    }
+}
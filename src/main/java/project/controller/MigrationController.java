@@ -0,0 +1,51 @@
+package project.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import project.model.response.IndexReport;
+import project.model.response.MigrationReport;
+import project.service.IndexBootstrapper;
+import project.service.MigrationService;
+
+@RestController
+@RequestMapping("/api/migrations")
+@RequiredArgsConstructor
+@CrossOrigin(methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
+@PreAuthorize("hasRole('SYSTEM_ADMIN')")
+public class MigrationController {
+
+    private final MigrationService migrationService;
+    private final IndexBootstrapper indexBootstrapper;
+
+    @PreAuthorize("hasPermission(null, 'admin:update')")
+    @PostMapping("/inlineImageData")
+    public ResponseEntity<MigrationReport> migrateInlineImageData() {
+        return ResponseEntity.ok(migrationService.migrateInlineImageData());
+    }
+
+    @PreAuthorize("hasPermission(null, 'admin:update')")
+    @PostMapping("/objectPointsGeometry")
+    public ResponseEntity<MigrationReport> migrateObjectPointsToGeometry() {
+        return ResponseEntity.ok(migrationService.migrateObjectPointsToGeometry());
+    }
+
+    @PreAuthorize("hasPermission(null, 'admin:update')")
+    @PostMapping("/annotationDatasetIds")
+    public ResponseEntity<MigrationReport> backfillAnnotationDatasetIds() {
+        return ResponseEntity.ok(migrationService.backfillAnnotationDatasetIds());
+    }
+
+    @PreAuthorize("hasPermission(null, 'admin:read')")
+    @GetMapping("/indexes")
+    public ResponseEntity<IndexReport> getIndexReport() {
+        return ResponseEntity.ok(indexBootstrapper.getLastReport());
+    }
+
+    @PreAuthorize("hasPermission(null, 'admin:update')")
+    @PostMapping("/indexes")
+    public ResponseEntity<IndexReport> ensureIndexes() {
+        return ResponseEntity.ok(indexBootstrapper.ensureIndexes());
+    }
+}
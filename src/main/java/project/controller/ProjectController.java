@@ -4,10 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import project.configuration.AuthorizedUser;
 import project.model.project.Project;
 import project.model.project.UserProject;
 import project.model.project.UserProjectDetails;
@@ -29,19 +28,25 @@ public class ProjectController {
     private final ProjectService projectService;
     private final AuthUserService userService;
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/getAll")
     public ResponseEntity<?> getAllProjects() {
         return ResponseEntity.ok(projectService.findAll());
     }
 
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
+    @GetMapping("/getPage")
+    public ResponseEntity<?> getProjectsPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(projectService.findPage(cursor, limit));
+    }
+
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     @GetMapping("/getAllByOwnerId/{id}")
     public ResponseEntity<?> getAllByOwnerId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorizedUser,
             @PathVariable String id) {
-
-        AuthUser authorizedUser = getAuthorizedUser(authentication);
         checkUserAuthorization(authorizedUser, id);
 
 
@@ -49,32 +54,30 @@ public class ProjectController {
         return ResponseEntity.ok(projectService.findProjectsByOwnerId(id));
     }
 
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     @GetMapping("/getById/{projectId}")
     public ResponseEntity<?> getById(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorizedUser,
             @PathVariable String projectId
     ) {
-        AuthUser authorizedUser = getAuthorizedUser(authentication);
         checkUserAuthorization(authorizedUser, projectId);
 
         return ResponseEntity.ok(projectService.findById(projectId));
     }
 
 //    @PutMapping("/update")
-//    @PreAuthorize("hasAuthority('admin:update')")
+//    @PreAuthorize("hasPermission(null, 'admin:update')")
 //    public ResponseEntity<?> updateProject(@RequestBody Project project) {
 //        return ResponseEntity.ok(projectService.update(project));
 //    }
 
     @PutMapping("/update/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:update', 'researcher:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update,researcher:update')")
     public ResponseEntity<?> updateProjectBy(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String id,
             @RequestBody Project request
     ) {
-        AuthUser fetchedUser = getAuthorizedUser(authentication);
         Project fetchedProject = projectService.findById(id);
         checkUserAuthorization(fetchedUser, fetchedProject.getId());
 
@@ -84,11 +87,10 @@ public class ProjectController {
 
 
     @PostMapping("/create")
-    @PreAuthorize("hasAnyAuthority('admin:create', 'researcher:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create,researcher:create')")
     public ResponseEntity<?> saveProjectBy(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody Project request) {
-        AuthUser authorized = getAuthorizedUser(authentication);
         if (!authorized.isAdmin() && !authorized.getRole().equals(SystemRole.SYSTEM_RESEARCHER)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(PERMISSION_DENIED_MESSAGE);
         }
@@ -98,15 +100,11 @@ public class ProjectController {
     }
 
     @DeleteMapping("/delete/{id}")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteProject(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser fetchedUser,
             @PathVariable String id
     ) {
-        // Retrieve the authorized user and validate existence
-        AuthUser fetchedUser = userService.findAuthUserByUsername(authentication.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
-
         // Retrieve the project and validate existence
         Project fetchedProject = projectService.findById(id);
         // Check if the user has edit authority or is SYSTEM_ADMIN
@@ -120,14 +118,11 @@ public class ProjectController {
     }
 
     @GetMapping("/users/getByUserIdAndProjectId")
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     public ResponseEntity<?> getUserByUserIdAndProjectId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestParam("userId") String userId,
             @RequestParam("projectId") String projectId) {
-        // Validate and retrieve the authenticated user
-        AuthUser authorized = userService.findAuthUserByUsername(authentication.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
 
         // Validate and retrieve the user by ID
         AuthUser fetchedUser = userService.findAuthUserById(userId)
@@ -145,18 +140,15 @@ public class ProjectController {
         return ResponseEntity.ok(new UserProjectDetails(fetchedUser, fetchedLink));
     }
 
-    @PreAuthorize("hasAnyAuthority('admin:read', 'researcher:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read,researcher:read')")
     @GetMapping("/users/getByProjectId/{projectId}")
     public ResponseEntity<?> getUsersByProjectId(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @PathVariable String projectId
     ) {
         // Retrieve and validate the project
         Project fetchedProject = projectService.findById(projectId);
 
-        // Retrieve and validate the authenticated user
-        AuthUser authorized = userService.findAuthUserByUsername(authentication.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
 
 
         // Authorization check for non-admin users
@@ -172,14 +164,11 @@ public class ProjectController {
     }
 
     @PostMapping("/users/addUserToProject")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> addUserToProject(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody UserProject userProject
     ) {
-        // Validate and retrieve the authenticated user
-        AuthUser authorized = getAuthorizedUser(authentication);
-
         // Validate the project
         projectService.findById(userProject.getProjectId());
         // Authorization check for non-admin users
@@ -196,14 +185,11 @@ public class ProjectController {
     }
 
     @DeleteMapping("/users/deleteUserFromProject")
-    @PreAuthorize("hasAnyAuthority('admin:delete', 'researcher:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete,researcher:delete')")
     public ResponseEntity<?> deleteUserFromProject(
-            @AuthenticationPrincipal UserDetails authentication,
+            @AuthorizedUser AuthUser authorized,
             @RequestBody UserProject request
     ) {
-
-        // Validate and retrieve the authenticated user
-        AuthUser authorized = getAuthorizedUser(authentication);
         // Retrieve and validate the user-project link
         projectService.findUserProjectByProjectIdAndUserId(request.getProjectId(), request.getUserId());
 
@@ -222,12 +208,6 @@ public class ProjectController {
         return ResponseEntity.ok(new UserProjectDetails(deletedUser, deletedLink));
     }
 
-
-    private AuthUser getAuthorizedUser(UserDetails authentication) {
-        return userService.findAuthUserByUsername(authentication.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, USER_NOT_FOUND_MESSAGE));
-    }
-
     private void checkUserAuthorization(AuthUser authorizedUser, String projectId) {
         if (!projectService.userContainsAuthorityToEdit(projectId, authorizedUser.getId()) &&
                 !authorizedUser.isAdmin()) {
@@ -22,13 +22,21 @@ public class UserController {
 
     private final AuthUserService userService;
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/getAll")
     public ResponseEntity<?> getAllUsers() {
         return ResponseEntity.ok(userService.findAll());
     }
 
-    @PreAuthorize("hasAuthority('admin:create')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
+    @GetMapping("/getPage")
+    public ResponseEntity<?> getUsersPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(userService.findPage(cursor, limit));
+    }
+
+    @PreAuthorize("hasPermission(null, 'admin:create')")
     @PutMapping("/update/{id}")
     public ResponseEntity<?> updateUser(@PathVariable String id, @RequestBody AuthUser user){
         if (userService.findAuthUserByUsername(user.getUsername()).isPresent()) {
@@ -41,7 +49,7 @@ public class UserController {
         }
         return ResponseEntity.ok(userService.updateAuthUser(id,user).orElseThrow());
     }
-    @PreAuthorize("hasAuthority('admin:create')")
+    @PreAuthorize("hasPermission(null, 'admin:create')")
     @PostMapping("/create")
     public ResponseEntity<?> createUser(@RequestBody AuthUser user){
         if (userService.findAuthUserByUsername(user.getUsername()).isPresent()) {
@@ -55,7 +63,7 @@ public class UserController {
         return ResponseEntity.ok(userService.addUser(user).orElseThrow());
     }
 
-    @PreAuthorize("hasAuthority('admin:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update')")
     @PutMapping("/updateUsername")
     public ResponseEntity<Optional<?>> updateUsername(@RequestBody UpdateUsernameRequest request) {
         if (userService.findAuthUserById(request.getUserId()).isEmpty()) {
@@ -72,7 +80,7 @@ public class UserController {
         return ResponseEntity.ok(userService.updateUsername(request.getUserId(), request.getNewUsername()));
     }
 
-    @PreAuthorize("hasAuthority('admin:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update')")
     @PutMapping("/updateEmail")
     public ResponseEntity<Optional<?>> updateEmail(@RequestBody UpdateEmailRequest request) {
         if (userService.findAuthUserById(request.getUserId()).isEmpty()) {
@@ -91,7 +99,7 @@ public class UserController {
                 .ok(userService.updateEmail(request.getUserId(), request.getNewEmail()));
     }
 
-    @PreAuthorize("hasAuthority('admin:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update')")
     @PutMapping("/updatePassword")
     public ResponseEntity<Optional<?>> updatePassword(@RequestBody UpdatePasswordRequest request) {
         if (userService.findAuthUserById(request.getUserId()).isEmpty()) {
@@ -103,7 +111,7 @@ public class UserController {
         return ResponseEntity.ok(userService.updatePassword(request.getUserId(), request.getNewPassword()));
     }
 
-    @PreAuthorize("hasAuthority('admin:update')")
+    @PreAuthorize("hasPermission(null, 'admin:update')")
     @PutMapping("/updateRole")
     public ResponseEntity<Optional<?>> updateRole(@RequestBody UpdateRoleRequest request) {
         if (userService.findAuthUserById(request.getUserId()).isEmpty()) {
@@ -118,21 +126,21 @@ public class UserController {
     }
 
 
-    @PreAuthorize("hasAuthority('admin:delete')")
+    @PreAuthorize("hasPermission(null, 'admin:delete')")
     @DeleteMapping("/deleteById/{id}")
     public ResponseEntity<Optional<?>> deleteUserById(@PathVariable String id) {
         return ResponseEntity.ok(Optional.of(
                 userService.deleteUser(id)));
     }
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/getById/{id}")
     public ResponseEntity<Optional<?>> getUserById(@PathVariable String id) {
         return ResponseEntity.ok(Optional.of(
                 userService.findAuthUserById(id)));
     }
 
-    @PreAuthorize("hasAuthority('admin:read')")
+    @PreAuthorize("hasPermission(null, 'admin:read')")
     @GetMapping("/getByUsername/{username}")
     public ResponseEntity<Optional<?>> getUserByUsername(@PathVariable String username) {
         return ResponseEntity.ok(Optional.of(
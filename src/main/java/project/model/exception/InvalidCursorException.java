@@ -0,0 +1,14 @@
+package project.model.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException{
+    public InvalidCursorException() {
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package project.model.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidGeometryException extends RuntimeException{
+    public InvalidGeometryException() {
+    }
+
+    public InvalidGeometryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package project.model.exception;
+
+public class JobCancelledException extends RuntimeException{
+    public JobCancelledException() {
+    }
+
+    public JobCancelledException(String message) {
+        super(message);
+    }
+}
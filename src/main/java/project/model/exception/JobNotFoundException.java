@@ -0,0 +1,14 @@
+package project.model.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class JobNotFoundException extends RuntimeException{
+    public JobNotFoundException() {
+    }
+
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+}
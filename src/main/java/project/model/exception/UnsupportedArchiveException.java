@@ -0,0 +1,14 @@
+package project.model.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+public class UnsupportedArchiveException extends RuntimeException{
+    public UnsupportedArchiveException() {
+    }
+
+    public UnsupportedArchiveException(String message) {
+        super(message);
+    }
+}
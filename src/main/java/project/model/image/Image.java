@@ -5,10 +5,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.*;
 
+/**
+ * Image metadata document. The image bytes live only in GridFS and are referenced through
+ * {@code fileId}; {@code data} is never persisted and is only filled in for callers that
+ * explicitly ask for the bytes.
+ **/
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,8 +28,12 @@ public class Image {
 
     private String name;
     private String format;
+    @Transient
     private byte[] data;
     private String datasetId;
     @ElementCollection
     private List<String> categories;
+    private Long size;
+    private String fileId;
+    private String checksum;
 }
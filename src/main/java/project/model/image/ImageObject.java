@@ -22,4 +22,7 @@ public class ImageObject {
     private String id;
     private String name;
     private String imageId;
+    /** copied from the image, kept in sync by ImageService **/
+    private String datasetId;
+    private ObjectGeometry geometry;
 }
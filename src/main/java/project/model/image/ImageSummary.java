@@ -0,0 +1,33 @@
+package project.model.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Transient;
+
+import java.util.List;
+
+/**
+ * Read-only projection of {@link Image} used by listing endpoints, never carries image bytes.
+ **/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageSummary {
+    private String id;
+    private String name;
+    private String format;
+    private Long size;
+    private String datasetId;
+    private List<String> categories;
+
+    /**
+     * signed, short-lived URLs of the image bytes and its thumbnail, usable without the Bearer header
+     **/
+    @Transient
+    private String url;
+    @Transient
+    private String thumbnailUrl;
+}
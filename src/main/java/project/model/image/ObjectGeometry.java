@@ -0,0 +1,19 @@
+package project.model.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Polygon outline of an ImageObject, vertex i being (x[i], y[i]). Embedded in the object document
+ * and stored as one packed binary of doubles (16 bytes per vertex), see MongoConfiguration.
+ **/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObjectGeometry {
+    private double[] x;
+    private double[] y;
+}
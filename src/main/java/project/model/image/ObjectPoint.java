@@ -7,6 +7,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+/**
+ * Legacy vertex of an ImageObject outline. ImageObject.geometry is authoritative, ImageService
+ * rebuilds it from the points on every point write.
+ **/
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,6 +22,8 @@ public class ObjectPoint {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private String id;
     private String imageObjectId;
+    /** copied from the object's image, kept in sync by ImageService **/
+    private String datasetId;
     private String x;
     private String y;
 }
@@ -0,0 +1,39 @@
+package project.model.job;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Long-running operation executed in the background by JobService. {@code progress} and
+ * {@code total} are counted in units of the job type (images for the dataset jobs).
+ **/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("Jobs")
+@Entity
+public class Job {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private String id;
+    private JobType type;
+    private JobStatus status;
+    private String targetId;
+    private String ownerId;
+    private String instanceId;
+    private long progress;
+    private Long total;
+    private boolean cancelRequested;
+    private String message;
+    private Date createdAt;
+    private Date startedAt;
+    private Date finishedAt;
+    private Date heartbeatAt;
+}
@@ -0,0 +1,6 @@
+package project.model.job;
+
+public enum JobType {
+    DATASET_DELETE,
+    DATASET_CLEAR
+}
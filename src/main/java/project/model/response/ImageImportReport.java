@@ -0,0 +1,29 @@
+package project.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageImportReport {
+    private String datasetId;
+    private int entries;
+    private int imported;
+    private int skipped;
+    private int failed;
+    private List<EntryError> errors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class EntryError {
+        private String entry;
+        private String message;
+    }
+}
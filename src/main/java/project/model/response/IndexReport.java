@@ -0,0 +1,24 @@
+package project.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IndexReport {
+    @Builder.Default
+    private List<String> verified = new ArrayList<>();
+    @Builder.Default
+    private List<String> created = new ArrayList<>();
+    @Builder.Default
+    private List<String> drift = new ArrayList<>();
+    private Date checkedAt;
+}
@@ -0,0 +1,17 @@
+package project.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MigrationReport {
+    private String migration;
+    private long processed;
+    private long migrated;
+    private long skipped;
+}
@@ -29,6 +29,12 @@ public class AuthUser implements UserDetails {
 
     private boolean active;
 
+    /**
+     * incremented on every change of the user's dataset or project memberships,
+     * tokens carrying role claims of an older version are not trusted for them
+     **/
+    private long membershipVersion;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return role.getAuthorities();
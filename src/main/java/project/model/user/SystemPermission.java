@@ -4,8 +4,11 @@ import lombok.Generated;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RequiredArgsConstructor
@@ -55,6 +58,34 @@ public enum SystemPermission {
     @Getter
     private final String permission;
 
+    private static final Map<String, SystemPermission> BY_PERMISSION = new HashMap<>();
+
+    static {
+        for (SystemPermission value : values()) BY_PERMISSION.put(value.permission, value);
+    }
+
+    /**
+     * long bit()
+     * single bit of this permission in a permission mask, there are fewer than 64 permissions
+     **/
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public static long mask(Collection<SystemPermission> permissions) {
+        long mask = 0;
+        for (SystemPermission permission : permissions) mask |= permission.bit();
+        return mask;
+    }
+
+    /**
+     * SystemPermission fromPermission(String permission)
+     * returns the value for an authority string like "admin:read", null if there is none
+     **/
+    public static SystemPermission fromPermission(String permission) {
+        return BY_PERMISSION.get(permission);
+    }
+
     public static Set<SystemPermission> getAllPermissions() {
         return Set.of(SystemPermission.values());
     }
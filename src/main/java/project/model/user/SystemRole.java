@@ -4,11 +4,9 @@ import lombok.*;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static project.model.user.SystemPermission.*;
 
-@RequiredArgsConstructor
 public enum SystemRole {
 
 
@@ -29,12 +27,34 @@ public enum SystemRole {
     @Getter
     private final Set<SystemPermission> permissions;
 
-    public List<SimpleGrantedAuthority> getAuthorities() {
-        var authorities = getPermissions()
-                .stream()
-                .map(permission -> new SimpleGrantedAuthority(permission.getPermission()))
-                .collect(Collectors.toList());
+    /**
+     * permissions encoded as SystemPermission bits, see SystemPermission.mask
+     **/
+    @Getter
+    private final long permissionMask;
+
+    private final List<SimpleGrantedAuthority> authorities;
+
+    SystemRole(Set<SystemPermission> permissions) {
+        this.permissions = Collections.unmodifiableSet(EnumSet.copyOf(permissions));
+        this.permissionMask = SystemPermission.mask(permissions);
+
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (SystemPermission permission : this.permissions)
+            authorities.add(new SimpleGrantedAuthority(permission.getPermission()));
         authorities.add(new SimpleGrantedAuthority(this.name()));
+        this.authorities = List.copyOf(authorities);
+    }
+
+    /**
+     * List<SimpleGrantedAuthority> getAuthorities()
+     * returns the immutable authority list built once per role
+     **/
+    public List<SimpleGrantedAuthority> getAuthorities() {
         return authorities;
     }
+
+    public boolean hasAnyPermission(long mask) {
+        return (permissionMask & mask) != 0;
+    }
 }
@@ -0,0 +1,73 @@
+package project.model.user;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Dataset and project roles of a user as embedded in the JWT ("mv" version, "dr" dataset roles,
+ * "pr" project roles). Only meaningful while version matches the user's current membershipVersion,
+ * the JWT filter checks that before exposing it to the authorization checks.
+ **/
+public record TokenMemberships(String userId,
+                               long version,
+                               Map<String, SystemRole> datasetRoles,
+                               Map<String, SystemRole> projectRoles) {
+
+    public static final String REQUEST_ATTRIBUTE = TokenMemberships.class.getName();
+
+    private static final String VERSION_CLAIM = "mv";
+    private static final String DATASET_ROLES_CLAIM = "dr";
+    private static final String PROJECT_ROLES_CLAIM = "pr";
+
+    public Map<String, Object> toClaims() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(VERSION_CLAIM, version);
+        claims.put(DATASET_ROLES_CLAIM, roleNames(datasetRoles));
+        claims.put(PROJECT_ROLES_CLAIM, roleNames(projectRoles));
+        return claims;
+    }
+
+    /**
+     * TokenMemberships fromClaims(String userId, Claims claims)
+     * returns the memberships embedded in the token, empty for tokens issued without them
+     **/
+    public static Optional<TokenMemberships> fromClaims(String userId, Claims claims) {
+        if (!(claims.get(VERSION_CLAIM) instanceof Number version)
+                || !(claims.get(DATASET_ROLES_CLAIM) instanceof Map<?, ?> datasetRoles)
+                || !(claims.get(PROJECT_ROLES_CLAIM) instanceof Map<?, ?> projectRoles))
+            return Optional.empty();
+
+        try {
+            return Optional.of(new TokenMemberships(userId, version.longValue(), roles(datasetRoles), roles(projectRoles)));
+        } catch (IllegalArgumentException e) {
+            // a role that no longer exists, the token is treated as if it carried no memberships
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * the role is authoritative, an absent one means the user is not a member
+     **/
+    public Optional<SystemRole> findDatasetRole(String datasetId) {
+        return Optional.ofNullable(datasetRoles.get(datasetId));
+    }
+
+    public Optional<SystemRole> findProjectRole(String projectId) {
+        return Optional.ofNullable(projectRoles.get(projectId));
+    }
+
+    private static Map<String, String> roleNames(Map<String, SystemRole> roles) {
+        Map<String, String> names = new HashMap<>();
+        roles.forEach((id, role) -> names.put(id, role.name()));
+        return names;
+    }
+
+    private static Map<String, SystemRole> roles(Map<?, ?> names) {
+        Map<String, SystemRole> roles = new HashMap<>();
+        names.forEach((id, role) -> roles.put(String.valueOf(id), SystemRole.valueOf(String.valueOf(role))));
+        return roles;
+    }
+}
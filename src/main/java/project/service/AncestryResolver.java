@@ -0,0 +1,125 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import project.model.exception.DBObjectNotFoundException;
+import project.model.exception.ImageNotFoundException;
+import project.model.exception.ImageObjectNotFoundException;
+import project.model.image.Image;
+import project.model.image.ImageObject;
+import project.model.image.ObjectPoint;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Walks point -> object -> image -> dataset for authorization checks. Every hop is a single-field
+ * projection (the image blob is never touched) and the parent links are kept in a bounded cache.
+ * Links only change when an image is moved to another dataset, an object to another image, or an
+ * entity is deleted; the services evict them then, but only on their own instance. The TTL
+ * (ancestry.cache.ttl) bounds how long other instances keep authorizing against an old link.
+ **/
+@Service
+public class AncestryResolver {
+
+    private static final String IMAGE = "image:";
+    private static final String OBJECT = "object:";
+    private static final String POINT = "point:";
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, String> parents;
+
+    public AncestryResolver(MongoTemplate mongoTemplate,
+                            @Value("${ancestry.cache.max-size:100000}") long maxSize,
+                            @Value("${ancestry.cache.ttl:5m}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.parents = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    public String datasetIdOfImage(String imageId) {
+        return parents.get(IMAGE + imageId, key -> Optional
+                .ofNullable(findParent(imageId, "datasetId", Image.class))
+                .map(Image::getDatasetId)
+                .orElseThrow(() -> new ImageNotFoundException("Image not found.")));
+    }
+
+    public String imageIdOfObject(String objectId) {
+        return parents.get(OBJECT + objectId, key -> Optional
+                .ofNullable(findParent(objectId, "imageId", ImageObject.class))
+                .map(ImageObject::getImageId)
+                .orElseThrow(() -> new ImageObjectNotFoundException("Image object not found.")));
+    }
+
+    public String objectIdOfPoint(String pointId) {
+        return parents.get(POINT + pointId, key -> Optional
+                .ofNullable(findParent(pointId, "imageObjectId", ObjectPoint.class))
+                .map(ObjectPoint::getImageObjectId)
+                .orElseThrow(() -> new DBObjectNotFoundException("Object point not found.")));
+    }
+
+    public String datasetIdOfObject(String objectId) {
+        return datasetIdOfImage(imageIdOfObject(objectId));
+    }
+
+    public String datasetIdOfPoint(String pointId) {
+        return datasetIdOfObject(objectIdOfPoint(pointId));
+    }
+
+    public void evictImage(String imageId) {
+        parents.invalidate(IMAGE + imageId);
+    }
+
+    public void evictObject(String objectId) {
+        parents.invalidate(OBJECT + objectId);
+    }
+
+    public void evictPoint(String pointId) {
+        parents.invalidate(POINT + pointId);
+    }
+
+    /**
+     * void evictImages(Collection<String> imageIds)
+     * evicts the images together with the cached links of their objects and of those objects' points,
+     * for bulk deletes that never see the individual object and point ids
+     **/
+    public void evictImages(Collection<String> imageIds) {
+        if (imageIds.isEmpty()) return;
+        Set<String> images = new HashSet<>(imageIds);
+        images.forEach(this::evictImage);
+
+        Set<String> objectIds = new HashSet<>();
+        parents.asMap().forEach((key, parent) -> {
+            if (key.startsWith(OBJECT) && images.contains(parent)) objectIds.add(key.substring(OBJECT.length()));
+        });
+        evictObjects(objectIds);
+    }
+
+    /**
+     * void evictObjects(Collection<String> objectIds)
+     * evicts the objects together with the cached links of their points
+     **/
+    public void evictObjects(Collection<String> objectIds) {
+        if (objectIds.isEmpty()) return;
+        Set<String> objects = new HashSet<>(objectIds);
+        objects.forEach(this::evictObject);
+        parents.asMap().entrySet().removeIf(link -> link.getKey().startsWith(POINT) && objects.contains(link.getValue()));
+    }
+
+    public Cache<?, ?> getParents() {
+        return parents;
+    }
+
+    private <T> T findParent(String id, String parentField, Class<T> type) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include(parentField);
+        return mongoTemplate.findOne(query, type);
+    }
+}
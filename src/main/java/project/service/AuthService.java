@@ -19,6 +19,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenMembershipService tokenMembershipService;
     public AuthResponse register(RegisterRequest request) {
         var user = AuthUser.builder()
                 .username(request.getUsername())
@@ -28,7 +29,7 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
+        var jwtToken = jwtService.generateToken(tokenMembershipService.claimsFor(user), user);
 
         return AuthResponse.builder()
                 .jwtResponse(jwtToken)
@@ -44,7 +45,7 @@ public class AuthService {
          var user = userRepository.findAuthUserByUsername(request.getUsername())
                  .orElseThrow();
 
-         var jwtToken = jwtService.generateToken(user);
+         var jwtToken = jwtService.generateToken(tokenMembershipService.claimsFor(user), user);
 
         return AuthResponse.builder()
                 .jwtResponse(jwtToken)
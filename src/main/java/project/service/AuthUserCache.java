@@ -0,0 +1,52 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.model.user.AuthUser;
+import project.service.repository.AuthUserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL based cache of users by username, shared by the JWT filter (through the
+ * UserDetailsService) and the controllers. AuthUserService invalidates an entry whenever the
+ * user's username, password, role or anything else on it changes; the TTL bounds staleness for
+ * changes made by other instances. Unknown usernames are not cached.
+ **/
+@Service
+public class AuthUserCache {
+
+    private final AuthUserRepository userRepository;
+    private final Cache<String, AuthUser> users;
+
+    public AuthUserCache(AuthUserRepository userRepository,
+                         @Value("${users.cache.max-size:10000}") long maxSize,
+                         @Value("${users.cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<AuthUser> findByUsername(String username) {
+        return Optional.ofNullable(users.get(username,
+                key -> userRepository.findAuthUserByUsername(key).orElse(null)));
+    }
+
+    public void invalidate(String username) {
+        if (username != null) users.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        users.invalidateAll();
+    }
+
+    public Cache<?, ?> getUsers() {
+        return users;
+    }
+}
@@ -1,13 +1,20 @@
 package project.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import project.model.exception.UserNotFoundException;
+import project.model.response.CursorPage;
 import project.model.user.AuthUser;
 import project.model.user.SystemRole;
 import project.service.repository.AuthUserRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,18 +23,25 @@ import java.util.Optional;
 public class AuthUserService {
     private final AuthUserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CursorPaginationService paginationService;
+    private final AuthUserCache userCache;
+    private final MongoTemplate mongoTemplate;
 
 
     public List<AuthUser> findAll() {
         return userRepository.findAll();
     }
 
+    public CursorPage<AuthUser> findPage(String cursor, Integer limit) {
+        return paginationService.findPage(AuthUser.class, AuthUser.class, null, cursor, limit, AuthUser::getId);
+    }
+
     public Optional<AuthUser> findAuthUserByEmail(String email) {
         return userRepository.findAuthUserByEmail(email);
     }
 
     public Optional<AuthUser> findAuthUserByUsername(String username) {
-        return userRepository.findAuthUserByUsername(username);
+        return userCache.findByUsername(username);
     }
 
     public Optional<AuthUser> findAuthUserById(String id) {
@@ -40,7 +54,9 @@ public class AuthUserService {
 
     public Optional<AuthUser> addUser(AuthUser user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return Optional.of(userRepository.save(user));
+        user.setMembershipVersion(0);
+        // insert, never overwrite an existing user (and its membershipVersion)
+        return Optional.of(userRepository.insert(user));
 
     }
 
@@ -56,42 +72,38 @@ public class AuthUserService {
 
     public Optional<AuthUser> updateAuthUser(String userId, AuthUser authUser) {
         AuthUser existingUser = userRepository.findAuthUsersById(userId).orElseThrow();
-        existingUser.setUsername(authUser.getUsername());
-        existingUser.setEmail(authUser.getEmail());
-        existingUser.setPassword(passwordEncoder.encode(authUser.getPassword()));
-        existingUser.setRole(authUser.getRole());
-        existingUser.setActive(authUser.isActive());
-        return Optional.of(userRepository.save(existingUser));
+        return Optional.of(updateAndInvalidate(existingUser, new Update()
+                .set("username", authUser.getUsername())
+                .set("email", authUser.getEmail())
+                .set("password", passwordEncoder.encode(authUser.getPassword()))
+                .set("role", authUser.getRole())
+                .set("active", authUser.isActive())));
     }
 
 
     public Optional<AuthUser> updateUsername(String userId, String newUsername) {
         AuthUser existingUser = userRepository.findAuthUsersById(userId).orElseThrow(()->new UserNotFoundException("User not found."));
-        existingUser.setUsername(newUsername);
-        return Optional.of(userRepository.save(existingUser));
+        return Optional.of(updateAndInvalidate(existingUser, new Update().set("username", newUsername)));
 
     }
 
     public Optional<AuthUser> updateEmail(String userId, String newEmail) {
         AuthUser existingUser = userRepository.findAuthUsersById(userId).orElseThrow(()->new UserNotFoundException("User not found."));
 
-        existingUser.setEmail(newEmail);
-        return Optional.of(userRepository.save(existingUser));
+        return Optional.of(updateAndInvalidate(existingUser, new Update().set("email", newEmail)));
 
     }
 
     public Optional<AuthUser> updatePassword(String userId, String newPassword) {
         AuthUser existingUser = userRepository.findAuthUsersById(userId).orElseThrow(()->new UserNotFoundException("User not found."));
 
-        existingUser.setPassword(passwordEncoder.encode(newPassword));
-        return Optional.of(userRepository.save(existingUser));
+        return Optional.of(updateAndInvalidate(existingUser, new Update().set("password", passwordEncoder.encode(newPassword))));
     }
 
     public Optional<AuthUser> updateRole(String userId, String role) {
         AuthUser existingUser = userRepository.findAuthUsersById(userId).orElseThrow(()->new UserNotFoundException("User not found."));
 
-        existingUser.setRole(SystemRole.valueOf(role));
-        return Optional.of(userRepository.save(existingUser));
+        return Optional.of(updateAndInvalidate(existingUser, new Update().set("role", SystemRole.valueOf(role))));
     }
 
 
@@ -99,7 +111,36 @@ public class AuthUserService {
 
         AuthUser deleted = userRepository.findAuthUsersById(id).orElseThrow(()->new UserNotFoundException("User not found."));
         userRepository.deleteById(id);
+        userCache.invalidate(deleted.getUsername());
         return Optional.of(deleted);
     }
 
+    /**
+     * void bumpMembershipVersions(Collection<String> userIds)
+     * increments membershipVersion of the users after their dataset or project memberships changed,
+     * invalidating the role claims of their issued tokens. The cached principals are evicted by username
+     * after the update, which also waits for a load of the old version still in flight.
+     **/
+    public void bumpMembershipVersions(Collection<String> userIds) {
+        if (userIds.isEmpty()) return;
+        Query users = new Query(Criteria.where("_id").in(userIds));
+        mongoTemplate.updateMulti(users, new Update().inc("membershipVersion", 1), AuthUser.class);
+        users.fields().include("username");
+        mongoTemplate.find(users, AuthUser.class).forEach(user -> userCache.invalidate(user.getUsername()));
+    }
+
+    /**
+     * Applies the changed fields only: a full-document save would write back a stale membershipVersion
+     * and undo a concurrent bumpMembershipVersions. Evicts the cached principal after the write,
+     * so a concurrent request cannot re-cache the old state.
+     **/
+    private AuthUser updateAndInvalidate(AuthUser existingUser, Update update) {
+        AuthUser updated = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(existingUser.getId())),
+                update, FindAndModifyOptions.options().returnNew(true), AuthUser.class);
+        if (updated == null) throw new UserNotFoundException("User not found.");
+        userCache.invalidate(existingUser.getUsername());
+        userCache.invalidate(updated.getUsername());
+        return updated;
+    }
+
 }
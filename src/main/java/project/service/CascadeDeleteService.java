@@ -0,0 +1,180 @@
+package project.service;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import project.model.image.Image;
+import project.model.image.ImageObject;
+import project.model.image.ObjectPoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Removes images and everything hanging off them (objects, points, GridFS files and chunks,
+ * derivatives included) with deleteMany/$in per batch of ids. Ids are resolved through
+ * _id-only projections, so no full document is loaded and the number of queries grows with the
+ * number of batches, not with the number of entities.
+ **/
+@Service
+@RequiredArgsConstructor
+public class CascadeDeleteService {
+
+    static final int DELETE_BATCH_SIZE = 1000;
+
+    private static final String FILES_COLLECTION = "fs.files";
+    private static final String CHUNKS_COLLECTION = "fs.chunks";
+
+    private final MongoTemplate mongoTemplate;
+    private final AncestryResolver ancestryResolver;
+
+    /**
+     * long deleteDatasetContent(String datasetId)
+     * deletes all images of the dataset with their objects, points and files,
+     * returns the number of deleted images
+     **/
+    public long deleteDatasetContent(String datasetId) {
+        return deleteDatasetContent(datasetId, null);
+    }
+
+    /**
+     * long deleteDatasetContent(String datasetId, JobContext context)
+     * same as above, reporting progress in images to the job and checking for its cancellation
+     * before every batch
+     **/
+    public long deleteDatasetContent(String datasetId, JobContext context) {
+        Long total = context != null
+                ? mongoTemplate.count(new Query(Criteria.where("datasetId").is(datasetId)), Image.class)
+                : null;
+
+        AtomicLong deleted = new AtomicLong();
+        forEachImageIdBatch(datasetId, batch -> {
+            if (context != null) context.checkCancelled();
+            deleted.addAndGet(deleteImages(batch));
+            if (context != null) context.progress(deleted.get(), total);
+        });
+        return deleted.get();
+    }
+
+    /**
+     * List<Image> deleteImagesByDatasetId(String datasetId, boolean keepAnnotated)
+     * deletes the images of the dataset (skipping the ones that have objects when keepAnnotated is set)
+     * together with everything that belongs to them, returns the metadata of the deleted images
+     **/
+    public List<Image> deleteImagesByDatasetId(String datasetId, boolean keepAnnotated) {
+        List<Image> deleted = new ArrayList<>();
+        forEachImageIdBatch(datasetId, batch -> {
+            List<String> imageIds = batch;
+            if (keepAnnotated) {
+                Set<String> annotated = new HashSet<>(mongoTemplate.findDistinct(
+                        new Query(Criteria.where("imageId").in(batch)), "imageId", ImageObject.class, String.class));
+                imageIds = batch.stream().filter(id -> !annotated.contains(id)).toList();
+            }
+            if (imageIds.isEmpty()) return;
+
+            Query metadata = new Query(Criteria.where("_id").in(imageIds));
+            metadata.fields().exclude("data");
+            deleted.addAll(mongoTemplate.find(metadata, Image.class));
+            deleteImages(imageIds);
+        });
+        return deleted;
+    }
+
+    /**
+     * walks the ids of the dataset's images with an _id-only cursor and hands them over in
+     * batches of DELETE_BATCH_SIZE
+     **/
+    private void forEachImageIdBatch(String datasetId, Consumer<List<String>> action) {
+        List<String> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Image.class))
+                .find(Filters.eq("datasetId", datasetId))
+                .projection(Projections.include("_id"))
+                .batchSize(DELETE_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next().get("_id").toString());
+                if (batch.size() == DELETE_BATCH_SIZE) {
+                    action.accept(batch);
+                    batch = new ArrayList<>(DELETE_BATCH_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) action.accept(batch);
+    }
+
+    /**
+     * long deleteImages(Collection<String> imageIds)
+     * deletes the images with their objects, points and GridFS files, returns the number of deleted images
+     **/
+    public long deleteImages(Collection<String> imageIds) {
+        if (imageIds.isEmpty()) return 0;
+
+        deleteObjectsByImageIds(imageIds);
+        deleteImageFiles(imageIds);
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(imageIds)), Image.class).getDeletedCount();
+        ancestryResolver.evictImages(imageIds);
+        return deleted;
+    }
+
+    /**
+     * long deleteObjectsByImageIds(Collection<String> imageIds)
+     * deletes all objects of the images and their points, returns the number of deleted objects
+     **/
+    public long deleteObjectsByImageIds(Collection<String> imageIds) {
+        if (imageIds.isEmpty()) return 0;
+
+        Query objects = new Query(Criteria.where("imageId").in(imageIds));
+        objects.fields().include("_id");
+        List<String> objectIds = mongoTemplate.find(objects, ImageObject.class).stream()
+                .map(ImageObject::getId)
+                .toList();
+
+        for (int from = 0; from < objectIds.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = objectIds.subList(from, Math.min(objectIds.size(), from + DELETE_BATCH_SIZE));
+            mongoTemplate.remove(new Query(Criteria.where("imageObjectId").in(batch)), ObjectPoint.class);
+        }
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("imageId").in(imageIds)), ImageObject.class)
+                .getDeletedCount();
+        ancestryResolver.evictObjects(objectIds);
+        return deleted;
+    }
+
+    /**
+     * long deleteObjects(Collection<String> objectIds)
+     * deletes the objects and their points, returns the number of deleted objects
+     **/
+    public long deleteObjects(Collection<String> objectIds) {
+        if (objectIds.isEmpty()) return 0;
+
+        mongoTemplate.remove(new Query(Criteria.where("imageObjectId").in(objectIds)), ObjectPoint.class);
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(objectIds)), ImageObject.class)
+                .getDeletedCount();
+        ancestryResolver.evictObjects(objectIds);
+        return deleted;
+    }
+
+    private void deleteImageFiles(Collection<String> imageIds) {
+        List<ObjectId> fileIds = new ArrayList<>();
+        mongoTemplate.getCollection(FILES_COLLECTION)
+                .find(Filters.in("metadata.imageId", imageIds))
+                .projection(Projections.include("_id"))
+                .forEach(file -> fileIds.add(file.getObjectId("_id")));
+        if (fileIds.isEmpty()) return;
+
+        // chunks first: if this is interrupted, the remaining files documents still lead a retry to them
+        mongoTemplate.getCollection(CHUNKS_COLLECTION).deleteMany(Filters.in("files_id", fileIds));
+        mongoTemplate.getCollection(FILES_COLLECTION).deleteMany(Filters.in("_id", fileIds));
+    }
+}
@@ -0,0 +1,79 @@
+package project.service;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import project.model.exception.InvalidCursorException;
+import project.model.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over {@code _id}. Every page is an index range scan starting right after the
+ * last returned id, so page 500 costs the same as page 1 (no skip/offset).
+ **/
+@Service
+@RequiredArgsConstructor
+public class CursorPaginationService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String ID_FIELD = "_id";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * CursorPage<T> findPage(Class<?> domainType, Class<T> resultType, Criteria criteria, String cursor, Integer limit, Function<T, String> idOf)
+     * returns up to limit documents of domainType matching criteria after the cursor position,
+     * read as resultType (a DTO result type restricts the fetched fields)
+     **/
+    public <T> CursorPage<T> findPage(Class<?> domainType,
+                                      Class<T> resultType,
+                                      Criteria criteria,
+                                      String cursor,
+                                      Integer limit,
+                                      Function<T, String> idOf) {
+        int pageSize = normalizeLimit(limit);
+
+        Query query = criteria != null ? new Query(criteria) : new Query();
+        if (cursor != null && !cursor.isBlank())
+            query.addCriteria(Criteria.where(ID_FIELD).gt(decodeCursor(cursor)));
+        query.with(Sort.by(Sort.Direction.ASC, ID_FIELD)).limit(pageSize + 1);
+
+        List<T> items = mongoTemplate.query(domainType).as(resultType).matching(query).all();
+
+        // one extra document is fetched only to learn whether another page exists
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = encodeCursor(idOf.apply(items.get(pageSize - 1)));
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    private int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ObjectId decodeCursor(String cursor) {
+        try {
+            String id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new ObjectId(id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor.");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package project.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+import project.model.dataset.Dataset;
+import project.model.exception.DatasetNotFoundException;
+import project.model.image.Image;
+import project.model.image.ImageObject;
+import project.model.image.ObjectPoint;
+import project.service.repository.DatasetRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a whole dataset as one ZIP archive: {@code dataset.json}, then for every image its
+ * original file under {@code images/<imageId>/} next to an {@code annotations.json} holding the
+ * image metadata, its objects and their points. Images are read through one cursor over the dataset;
+ * objects, points and GridFS files are looked up once per batch of {@code IMAGE_BATCH_SIZE} images,
+ * so memory use is bounded by one batch and not by the dataset.
+ **/
+@Service
+@RequiredArgsConstructor
+public class DatasetExportService {
+
+    private static final String IMAGES_FOLDER = "images/";
+    private static final int IMAGE_BATCH_SIZE = 100;
+
+    private final DatasetRepository datasetRepository;
+    private final ImageService imageService;
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final ObjectMapper objectMapper;
+
+    public Dataset findExportedDataset(String datasetId) {
+        return datasetRepository.findById(datasetId)
+                .orElseThrow(() -> new DatasetNotFoundException("Dataset not found."));
+    }
+
+    public void exportDataset(Dataset dataset, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+
+        zip.putNextEntry(new ZipEntry("dataset.json"));
+        writeJson(zip, generator -> generator.writeObject(dataset));
+        zip.closeEntry();
+
+        Query images = new Query(Criteria.where("datasetId").is(dataset.getId()))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        images.fields().exclude("data");
+
+        try (Stream<Image> imageCursor = mongoTemplate.stream(images, Image.class)) {
+            List<Image> batch = new ArrayList<>(IMAGE_BATCH_SIZE);
+            for (Image image : (Iterable<Image>) imageCursor::iterator) {
+                batch.add(image);
+                if (batch.size() == IMAGE_BATCH_SIZE) {
+                    writeImages(zip, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) writeImages(zip, batch);
+        }
+        zip.finish();
+    }
+
+    /**
+     * writes a batch of images, their objects, points and files are read with one query each for the
+     * whole batch
+     **/
+    private void writeImages(ZipOutputStream zip, List<Image> images) throws IOException {
+        Map<String, List<ImageObject>> objectsByImage = findObjects(images);
+        Map<String, List<ObjectPoint>> pointsByObject = findPoints(objectsByImage);
+        Map<String, GridFSFile> files = findFiles(images);
+
+        for (Image image : images) {
+            writeImage(zip, image, files.get(image.getFileId() != null ? image.getFileId() : image.getId()),
+                    objectsByImage.getOrDefault(image.getId(), Collections.emptyList()), pointsByObject);
+        }
+    }
+
+    /**
+     * objects are resolved through the image ids, not ImageObjects.datasetId, so data written before
+     * that field existed is exported as well
+     **/
+    private Map<String, List<ImageObject>> findObjects(List<Image> images) {
+        Query objects = new Query(Criteria.where("imageId").in(images.stream().map(Image::getId).toList()))
+                .with(Sort.by(Sort.Direction.ASC, "imageId", "_id"));
+        Map<String, List<ImageObject>> objectsByImage = new HashMap<>();
+        try (Stream<ImageObject> cursor = mongoTemplate.stream(objects, ImageObject.class)) {
+            cursor.forEach(object -> objectsByImage.computeIfAbsent(object.getImageId(), id -> new ArrayList<>())
+                    .add(object));
+        }
+        return objectsByImage;
+    }
+
+    private Map<String, List<ObjectPoint>> findPoints(Map<String, List<ImageObject>> objectsByImage) {
+        List<String> objectIds = objectsByImage.values().stream()
+                .flatMap(List::stream)
+                .map(ImageObject::getId)
+                .toList();
+        Map<String, List<ObjectPoint>> pointsByObject = new HashMap<>();
+        if (objectIds.isEmpty()) return pointsByObject;
+
+        Query points = new Query(Criteria.where("imageObjectId").in(objectIds))
+                .with(Sort.by(Sort.Direction.ASC, "imageObjectId", "_id"));
+        try (Stream<ObjectPoint> cursor = mongoTemplate.stream(points, ObjectPoint.class)) {
+            cursor.forEach(point -> pointsByObject.computeIfAbsent(point.getImageObjectId(), id -> new ArrayList<>())
+                    .add(point));
+        }
+        return pointsByObject;
+    }
+
+    /**
+     * the original files of the images keyed by file id, or by image id for images stored before
+     * Images.fileId existed
+     **/
+    private Map<String, GridFSFile> findFiles(List<Image> images) {
+        List<ObjectId> fileIds = new ArrayList<>();
+        List<String> unlinkedImageIds = new ArrayList<>();
+        for (Image image : images) {
+            if (image.getFileId() != null) fileIds.add(new ObjectId(image.getFileId()));
+            else unlinkedImageIds.add(image.getId());
+        }
+
+        List<Criteria> lookups = new ArrayList<>();
+        if (!fileIds.isEmpty()) lookups.add(Criteria.where("_id").in(fileIds));
+        if (!unlinkedImageIds.isEmpty()) lookups.add(Criteria.where("metadata.imageId").in(unlinkedImageIds)
+                .and(ImageDerivativeService.DERIVATIVE_SIZE_FIELD).exists(false));
+
+        Map<String, GridFSFile> files = new HashMap<>();
+        Set<ObjectId> linked = new HashSet<>(fileIds);
+        for (GridFSFile file : gridFsTemplate.find(new Query(new Criteria().orOperator(lookups)))) {
+            if (linked.contains(file.getObjectId())) files.put(file.getObjectId().toHexString(), file);
+            else if (file.getMetadata() != null) files.putIfAbsent(file.getMetadata().getString("imageId"), file);
+        }
+        return files;
+    }
+
+    private void writeImage(ZipOutputStream zip, Image image, GridFSFile file, List<ImageObject> objects,
+                            Map<String, List<ObjectPoint>> pointsByObject) throws IOException {
+        String folder = IMAGES_FOLDER + image.getId() + "/";
+
+        // metadata without content is still exported with its annotations
+        if (file != null) {
+            // image formats are already compressed, deflating them again only costs CPU
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            zip.putNextEntry(new ZipEntry(folder + fileName(image)));
+            imageService.copyImageContent(file, zip);
+            zip.closeEntry();
+            zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+        }
+
+        zip.putNextEntry(new ZipEntry(folder + "annotations.json"));
+        writeJson(zip, generator -> writeAnnotations(generator, image, objects, pointsByObject));
+        zip.closeEntry();
+    }
+
+    private void writeAnnotations(JsonGenerator generator, Image image, List<ImageObject> objects,
+                                  Map<String, List<ObjectPoint>> pointsByObject) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("image", image);
+
+        generator.writeArrayFieldStart("objects");
+        for (ImageObject object : objects) {
+            generator.writeStartObject();
+            generator.writeStringField("id", object.getId());
+            generator.writeStringField("name", object.getName());
+            generator.writeObjectField("geometry", object.getGeometry());
+            generator.writeArrayFieldStart("points");
+            for (ObjectPoint point : pointsByObject.getOrDefault(object.getId(), Collections.emptyList())) {
+                generator.writeObject(point);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    private void writeJson(OutputStream out, JsonWriter writer) throws IOException {
+        // the generator must not close the zip stream underneath it
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            writer.write(generator);
+        }
+    }
+
+    private String fileName(Image image) {
+        String name = image.getName() != null ? image.getName() : image.getId();
+        return name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
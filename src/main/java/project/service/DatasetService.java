@@ -1,6 +1,7 @@
 package project.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import project.model.dataset.Dataset;
 import project.model.dataset.UserDataset;
@@ -8,6 +9,9 @@ import project.model.dataset.UserDatasetDetails;
 import project.model.exception.DatasetNotFoundException;
 import project.model.exception.ProjectNotFoundException;
 import project.model.exception.UserNotFoundException;
+import project.model.job.Job;
+import project.model.job.JobType;
+import project.model.response.CursorPage;
 import project.model.user.AuthUser;
 import project.model.user.SystemRole;
 import project.service.repository.AuthUserRepository;
@@ -27,6 +31,9 @@ public class DatasetService {
     private final UserDatasetService userDatasetService;
     private final ProjectRepository projectRepository;
     private final ImageRepository imageRepository;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final JobService jobService;
+    private final CursorPaginationService paginationService;
 
     public List<Dataset> findAll() {
         return datasetRepository.findAll();
@@ -45,6 +52,12 @@ public class DatasetService {
         return datasetRepository.findDatasetsByProjectId(projectId).orElse(Collections.emptyList());
     }
 
+    public CursorPage<Dataset> findPageByProjectId(String projectId, String cursor, Integer limit) {
+        projectRepository.findById(projectId).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
+        return paginationService.findPage(Dataset.class, Dataset.class,
+                Criteria.where("projectId").is(projectId), cursor, limit, Dataset::getId);
+    }
+
     public List<Dataset> findAllByCategory(String category) {
         return datasetRepository.findAllByCategory(category).orElse(Collections.emptyList());
     }
@@ -90,16 +103,17 @@ public class DatasetService {
         return datasetRepository.save(existingDataset);
     }
 
-    public Dataset deleteDataset(String id) {
+    /**
+     * Job startDatasetDeletion(String id, String ownerId)
+     * deletes the dataset with its images, annotations and files in a background job
+     **/
+    public Job startDatasetDeletion(String id, String ownerId) {
         Dataset dataset = datasetRepository.findById(id).orElseThrow(() -> new DatasetNotFoundException("Dataset not found."));
-//        if (!imageRepository.findAllByDatasetId(id).isEmpty()) {
-//            throw new UnsupportedOperationException("Images list of this project is not empty.");
-//        }
-        imageRepository.deleteAllByDatasetId(dataset.getId());
-        userDatasetService.deleteAllByDatasetId(id);
-        datasetRepository.deleteById(id);
-
-        return dataset;
+        return jobService.submit(JobType.DATASET_DELETE, dataset.getId(), ownerId, context -> {
+            cascadeDeleteService.deleteDatasetContent(dataset.getId(), context);
+            userDatasetService.deleteAllByDatasetId(dataset.getId());
+            datasetRepository.deleteById(dataset.getId());
+        });
     }
 
     public List<Dataset> deleteAllByProjectId(String projectId) {
@@ -107,18 +121,10 @@ public class DatasetService {
         //List<Dataset> deletedDatasets = new ArrayList<>();
         List<Dataset> datasets = datasetRepository.findDatasetsByProjectId(projectId).orElse(Collections.emptyList());
 
-        try {
-            datasets.forEach(dataset -> {
-                if (imageRepository.findAllByDatasetId(dataset.getId()).isEmpty()) {
-                    //deletedDatasets.add(dataset);
-                    //datasetRepository.deleteById(dataset.getId());
-                    userDatasetService.deleteAllByDatasetId(dataset.getId());
-                    imageRepository.deleteAllByDatasetId(dataset.getId());
-                }
-            });
-        } catch (NullPointerException ignored) {
-
-        }
+        datasets.forEach(dataset -> {
+            userDatasetService.deleteAllByDatasetId(dataset.getId());
+            cascadeDeleteService.deleteDatasetContent(dataset.getId());
+        });
 
 
         return datasetRepository.deleteAllByProjectId(projectId).orElse(Collections.emptyList());
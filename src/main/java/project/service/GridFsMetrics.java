@@ -0,0 +1,52 @@
+package project.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bytes written to and read from GridFS, as the {@code gridfs.bytes} counter tagged with the direction
+ * ("in" stored, "out" read back) and the kind of file ("original" or "derivative").
+ **/
+@Component
+public class GridFsMetrics {
+
+    private static final String BYTES = "gridfs.bytes";
+
+    private final Counter originalsIn;
+    private final Counter originalsOut;
+    private final Counter derivativesIn;
+    private final Counter derivativesOut;
+
+    public GridFsMetrics(MeterRegistry registry) {
+        this.originalsIn = counter(registry, "in", "original");
+        this.originalsOut = counter(registry, "out", "original");
+        this.derivativesIn = counter(registry, "in", "derivative");
+        this.derivativesOut = counter(registry, "out", "derivative");
+    }
+
+    public void originalWritten(long bytes) {
+        originalsIn.increment(bytes);
+    }
+
+    public void originalRead(long bytes) {
+        originalsOut.increment(bytes);
+    }
+
+    public void derivativeWritten(long bytes) {
+        derivativesIn.increment(bytes);
+    }
+
+    public void derivativeRead(long bytes) {
+        derivativesOut.increment(bytes);
+    }
+
+    private static Counter counter(MeterRegistry registry, String direction, String kind) {
+        return Counter.builder(BYTES)
+                .baseUnit("bytes")
+                .description("Bytes transferred between the application and GridFS")
+                .tag("direction", direction)
+                .tag("kind", kind)
+                .register(registry);
+    }
+}
@@ -0,0 +1,204 @@
+package project.service;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsOperations;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+import project.model.exception.UnsupportedImageFormatException;
+import project.model.image.Image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Downscaled copies of uploaded images, stored as separate GridFS files that carry the
+ * original's {@code metadata.imageId} plus their {@code metadata.derivativeSize}
+ * (the maximum width/height in pixels). All sizes are generated together, lazily, on the first
+ * request for any of them.
+ **/
+@Service
+@RequiredArgsConstructor
+public class ImageDerivativeService {
+
+    public static final String DERIVATIVE_SIZE_FIELD = "metadata.derivativeSize";
+
+    private static final String JPEG = "jpeg";
+    private static final String PNG = "png";
+
+    private final GridFsTemplate gridFsTemplate;
+    private final GridFsOperations operations;
+    private final ImageService imageService;
+    private final GridFsMetrics gridFsMetrics;
+
+    private final ConcurrentHashMap<String, Object> generationLocks = new ConcurrentHashMap<>();
+
+    @Value("${images.derivatives.sizes:128,256,512,1024}")
+    private int[] derivativeSizes;
+
+    @PostConstruct
+    void validateSizes() {
+        if (derivativeSizes.length == 0 || Arrays.stream(derivativeSizes).anyMatch(size -> size <= 0))
+            throw new IllegalStateException("images.derivatives.sizes must list at least one positive size.");
+        derivativeSizes = Arrays.stream(derivativeSizes).sorted().distinct().toArray();
+    }
+
+    /**
+     * GridFSFile findOrCreateDerivative(Image image, int requestedSize)
+     * returns the smallest derivative at least requestedSize pixels wide/high (the largest one
+     * if none is big enough), generating the whole set on first use
+     **/
+    public GridFSFile findOrCreateDerivative(Image image, int requestedSize) throws IOException {
+        int size = resolveSize(requestedSize);
+        GridFSFile derivative = findDerivative(image.getId(), size);
+        if (derivative != null) return derivative;
+
+        Object lock = generationLocks.computeIfAbsent(image.getId(), id -> new Object());
+        try {
+            synchronized (lock) {
+                derivative = findDerivative(image.getId(), size);
+                if (derivative == null) {
+                    generateDerivatives(image);
+                    derivative = findDerivative(image.getId(), size);
+                }
+            }
+        } finally {
+            generationLocks.remove(image.getId(), lock);
+        }
+        return derivative;
+    }
+
+    /**
+     * GridFSFile findOrCreateDerivative(String imageId, int requestedSize)
+     * same as above, but the image document is only read when the derivatives still have to be generated
+     **/
+    public GridFSFile findOrCreateDerivative(String imageId, int requestedSize) throws IOException {
+        GridFSFile derivative = findDerivative(imageId, resolveSize(requestedSize));
+        if (derivative != null) return derivative;
+        return findOrCreateDerivative(imageService.findImageMetadataById(imageId), requestedSize);
+    }
+
+    private int resolveSize(int requestedSize) {
+        for (int size : derivativeSizes) {
+            if (size >= requestedSize) return size;
+        }
+        return derivativeSizes[derivativeSizes.length - 1];
+    }
+
+    private GridFSFile findDerivative(String imageId, int size) {
+        return gridFsTemplate.find(new Query(Criteria.where("metadata.imageId").is(imageId)
+                .and(DERIVATIVE_SIZE_FIELD).is(size))).first();
+    }
+
+    /**
+     * generates the sizes that do not exist yet, so a run that failed halfway is completed on the
+     * next request instead of storing the finished sizes a second time
+     **/
+    private void generateDerivatives(Image image) throws IOException {
+        int[] sizes = derivativeSizes;
+        Set<Integer> existing = new HashSet<>();
+        gridFsTemplate.find(new Query(Criteria.where("metadata.imageId").is(image.getId())
+                        .and(DERIVATIVE_SIZE_FIELD).exists(true)))
+                .forEach(file -> existing.add(file.getMetadata().getInteger("derivativeSize")));
+
+        BufferedImage source = readSubsampled(imageService.findImageFile(image), sizes[sizes.length - 1]);
+        if (source == null) throw new UnsupportedImageFormatException("Image format is not supported for thumbnails.");
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        String format = alpha ? PNG : JPEG;
+
+        // largest first, every smaller size is scaled down from the previous result
+        BufferedImage current = source;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            current = scaleToFit(current, sizes[i], alpha);
+            if (!existing.contains(sizes[i])) store(image, sizes[i], current, format);
+        }
+    }
+
+    /**
+     * Decodes the original with source subsampling, so a huge image never has to be
+     * materialized at full resolution to produce thumbnails of at most maxSize pixels.
+     **/
+    private BufferedImage readSubsampled(GridFSFile file, int maxSize) throws IOException {
+        gridFsMetrics.originalRead(file.getLength());
+        try (InputStream in = operations.getResource(file).getInputStream();
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestSide / (maxSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scaleToFit(BufferedImage source, int maxSize, boolean alpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        // halving steps keep bilinear filtering from dropping detail on large reductions
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage scaled = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private void store(Image image, int size, BufferedImage derivative, String format) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        if (!ImageIO.write(derivative, format, encoded))
+            throw new UnsupportedImageFormatException("No image writer available for " + format + ".");
+
+        DBObject metadata = new BasicDBObject();
+        metadata.put("imageId", image.getId());
+        metadata.put("derivativeSize", size);
+        gridFsMetrics.derivativeWritten(encoded.size());
+
+        gridFsTemplate.store(new ByteArrayInputStream(encoded.toByteArray()),
+                image.getName() + "_" + size + "." + format, "image/" + format, metadata);
+    }
+}
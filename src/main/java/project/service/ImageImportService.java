@@ -0,0 +1,250 @@
+package project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import project.model.exception.DatasetNotFoundException;
+import project.model.exception.UnsupportedArchiveException;
+import project.model.image.Image;
+import project.model.response.ImageImportReport;
+import project.service.repository.DatasetRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingests a ZIP or (optionally gzipped) TAR archive of images into one dataset. The archive is read
+ * as a stream; every entry is spooled to a temporary file and handed to a fixed pool of GridFS
+ * writers, with at most {@code 2 * parallelism} entries in flight per archive. Image metadata
+ * documents are inserted with unordered bulk writes.
+ **/
+@Slf4j
+@Service
+public class ImageImportService {
+
+    private static final int BULK_INSERT_SIZE = 500;
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+    private static final String ARCHIVE_ENTRY = "<archive>";
+
+    private final ImageService imageService;
+    private final DatasetRepository datasetRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private final int parallelism;
+    private final ExecutorService writers;
+
+    @Value("${images.upload.max-size:200MB}")
+    private DataSize maxEntrySize;
+
+    public ImageImportService(ImageService imageService,
+                              DatasetRepository datasetRepository,
+                              MongoTemplate mongoTemplate,
+                              @Value("${images.import.parallelism:4}") int parallelism) {
+        this.imageService = imageService;
+        this.datasetRepository = datasetRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.parallelism = parallelism;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "image-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    public ImageImportReport importArchive(String datasetId, List<String> categories, InputStream archive) throws IOException {
+        datasetRepository.findById(datasetId).orElseThrow(() -> new DatasetNotFoundException("Dataset not found."));
+
+        ImportState state = new ImportState();
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (ArchiveInputStream entries = openArchive(archive)) {
+            ArchiveEntry entry;
+            while ((entry = entries.getNextEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                String entryName = entry.getName();
+                String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+                state.entries.incrementAndGet();
+
+                Optional<MediaType> mediaType = MediaTypeFactory.getMediaType(fileName);
+                if (fileName.startsWith(".") || mediaType.isEmpty() || !"image".equals(mediaType.get().getType())) {
+                    state.skipped.incrementAndGet();
+                    continue;
+                }
+                if (!entries.canReadEntryData(entry)) {
+                    state.fail(entryName, "Entry data cannot be read from a streamed archive.");
+                    continue;
+                }
+
+                Path spooled = spool(entries, entryName, state);
+                if (spooled == null) continue;
+
+                Image image = Image.builder()
+                        .name(fileName)
+                        .format(mediaType.get().toString())
+                        .datasetId(datasetId)
+                        .categories(categories)
+                        .build();
+
+                inFlight.acquireUninterruptibly();
+                try {
+                    writers.execute(() -> {
+                        try (InputStream content = Files.newInputStream(spooled)) {
+                            state.pending.add(imageService.storeImageFile(image, content, fileName, image.getFormat()));
+                        } catch (Exception e) {
+                            state.fail(entryName, e.getMessage());
+                        } finally {
+                            deleteQuietly(spooled);
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    deleteQuietly(spooled);
+                    inFlight.release();
+                    state.fail(entryName, "Import writers are shutting down.");
+                }
+
+                if (state.pending.size() >= BULK_INSERT_SIZE) insertPending(state, false);
+                if (state.entries.get() % PROGRESS_LOG_INTERVAL == 0)
+                    log.info("Import into dataset {}: {} entries read, {} imported, {} failed.",
+                            datasetId, state.entries.get(), state.imported.get(), state.failed.get());
+            }
+        } catch (IOException e) {
+            // truncated upload or corrupt entry header: the entries read so far are still imported
+            state.fail(ARCHIVE_ENTRY, "Archive could not be read to the end: " + e.getMessage());
+        } finally {
+            // wait for the writers still working on this archive, then give every stored file its
+            // document, so nothing written to GridFS is left without one
+            inFlight.acquireUninterruptibly(maxInFlight);
+            insertPending(state, true);
+        }
+
+        return ImageImportReport.builder()
+                .datasetId(datasetId)
+                .entries(state.entries.get())
+                .imported(state.imported.get())
+                .skipped(state.skipped.get())
+                .failed(state.failed.get())
+                .errors(new ArrayList<>(state.errors))
+                .build();
+    }
+
+    private ArchiveInputStream openArchive(InputStream archive) throws IOException {
+        InputStream in = new BufferedInputStream(archive);
+        try {
+            in = new BufferedInputStream(new CompressorStreamFactory().createCompressorInputStream(in));
+        } catch (CompressorException notCompressed) {
+            // plain zip or tar
+        }
+
+        try {
+            // detection alone would also accept ar, cpio, arj, dump and the other formats commons-compress reads
+            String format = ArchiveStreamFactory.detect(in);
+            if (!ArchiveStreamFactory.ZIP.equals(format) && !ArchiveStreamFactory.TAR.equals(format))
+                throw new UnsupportedArchiveException("Request body is not a ZIP or TAR archive.");
+            return new ArchiveStreamFactory().createArchiveInputStream(format, in);
+        } catch (ArchiveException e) {
+            throw new UnsupportedArchiveException("Request body is not a ZIP or TAR archive.");
+        }
+    }
+
+    private Path spool(ArchiveInputStream entries, String entryName, ImportState state) throws IOException {
+        Path spooled = Files.createTempFile("image-import-", null);
+        long copied;
+        try {
+            BoundedInputStream bounded = new BoundedInputStream(entries, maxEntrySize.toBytes() + 1);
+            bounded.setPropagateClose(false);
+            copied = Files.copy(bounded, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(spooled);
+            throw e;
+        }
+
+        if (copied > maxEntrySize.toBytes()) {
+            deleteQuietly(spooled);
+            state.fail(entryName, "Entry exceeds the maximum upload size of " + maxEntrySize.toBytes() + " bytes.");
+            return null;
+        }
+        return spooled;
+    }
+
+    private void insertPending(ImportState state, boolean all) {
+        while (state.pending.size() >= BULK_INSERT_SIZE || (all && !state.pending.isEmpty())) {
+            List<Image> batch = new ArrayList<>(BULK_INSERT_SIZE);
+            Image image;
+            while (batch.size() < BULK_INSERT_SIZE && (image = state.pending.poll()) != null) batch.add(image);
+
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Image.class).insert(batch).execute();
+                state.imported.addAndGet(batch.size());
+            } catch (BulkOperationException e) {
+                state.imported.addAndGet(e.getResult().getInsertedCount());
+                e.getErrors().forEach(error -> {
+                    Image failed = batch.get(error.getIndex());
+                    imageService.deleteImageFile(failed);
+                    state.fail(failed.getName(), error.getMessage());
+                });
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled import entry {}.", path, e);
+        }
+    }
+
+    private static class ImportState {
+        private final AtomicInteger entries = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final ConcurrentLinkedQueue<ImageImportReport.EntryError> errors = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Image> pending = new ConcurrentLinkedQueue<>();
+
+        private void fail(String entry, String message) {
+            failed.incrementAndGet();
+            errors.add(new ImageImportReport.EntryError(entry, message));
+        }
+    }
+
+    public ExecutorService getWriters() {
+        return writers;
+    }
+}
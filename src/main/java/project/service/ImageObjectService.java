@@ -1,22 +1,33 @@
 package project.service;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import project.model.exception.ImageNotFoundException;
+import project.model.exception.InvalidGeometryException;
 import project.model.exception.ImageObjectNotFoundException;
+import project.model.image.Image;
 import project.model.image.ImageObject;
+import project.model.image.ObjectGeometry;
+import project.model.image.ObjectPoint;
 import project.service.repository.ImageObjectRepository;
 import project.service.repository.ImageRepository;
-import project.service.repository.ObjectPointRepository;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ImageObjectService {
     private final ImageObjectRepository objectRepository;
     private final ImageRepository imageRepository;
-    private final ObjectPointRepository objectPointRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final AncestryResolver ancestryResolver;
 
 
     public List<ImageObject> findAll() {
@@ -27,6 +38,10 @@ public class ImageObjectService {
         return objectRepository.findAllByImageId(imageId);
     }
 
+    public List<ImageObject> findAllByDatasetId(String datasetId) {
+        return objectRepository.findAllByDatasetId(datasetId);
+    }
+
     public ImageObject findById(String id) {
         return objectRepository
                 .findById(id)
@@ -34,8 +49,10 @@ public class ImageObjectService {
     }
 
     public ImageObject save(ImageObject imageObject) {
-        imageRepository.findById(imageObject.getImageId())
+        Image image = imageRepository.findMetadataById(imageObject.getImageId())
                 .orElseThrow(() -> new ImageNotFoundException("Image not found."));
+        validateGeometry(imageObject.getGeometry());
+        imageObject.setDatasetId(image.getDatasetId());
         return objectRepository.save(imageObject);
     }
 
@@ -49,6 +66,56 @@ public class ImageObjectService {
         return null;
     }
 
+    /**
+     * List<ImageObject> replaceAllByImageId(String imageId, List<ImageObject> objects)
+     * makes objects the complete annotation set of the image: objects without id are inserted,
+     * known ones replaced and the image's objects missing from the list removed, all through one
+     * unordered bulk write; the points of replaced and removed objects are dropped, the new geometry
+     * is the outline
+     **/
+    public List<ImageObject> replaceAllByImageId(String imageId, List<ImageObject> objects) {
+        Image image = imageRepository.findMetadataById(imageId)
+                .orElseThrow(() -> new ImageNotFoundException("Image not found."));
+        objects.forEach(object -> validateGeometry(object.getGeometry()));
+
+        Query existingQuery = new Query(Criteria.where("imageId").is(imageId));
+        existingQuery.fields().include("_id");
+        Set<String> staleIds = mongoTemplate.find(existingQuery, ImageObject.class).stream()
+                .map(ImageObject::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<String> pointOwnerIds = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ImageObject.class);
+        for (ImageObject object : objects) {
+            object.setImageId(imageId);
+            object.setDatasetId(image.getDatasetId());
+            if (object.getId() == null) {
+                object.setId(new ObjectId().toHexString());
+                bulk.insert(object);
+            } else if (staleIds.remove(object.getId())) {
+                bulk.replaceOne(new Query(Criteria.where("_id").is(object.getId())), object);
+                pointOwnerIds.add(object.getId());
+            } else {
+                throw new ImageObjectNotFoundException("Image object " + object.getId() + " does not belong to the image.");
+            }
+        }
+        if (!staleIds.isEmpty()) bulk.remove(new Query(Criteria.where("_id").in(staleIds)));
+
+        if (!objects.isEmpty() || !staleIds.isEmpty()) bulk.execute();
+        pointOwnerIds.addAll(staleIds);
+        if (!pointOwnerIds.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("imageObjectId").in(pointOwnerIds)), ObjectPoint.class);
+            ancestryResolver.evictObjects(pointOwnerIds);
+        }
+        return objects;
+    }
+
+    private void validateGeometry(ObjectGeometry geometry) {
+        if (geometry == null) return;
+        if (geometry.getX() == null || geometry.getY() == null || geometry.getX().length != geometry.getY().length)
+            throw new InvalidGeometryException("Geometry x and y must have the same number of coordinates.");
+    }
+
     public ImageObject deleteById(String id) {
         ImageObject deleted = findById(id);
         objectRepository.deleteById(id);
@@ -56,13 +123,11 @@ public class ImageObjectService {
     }
 
     public List<ImageObject> deleteAllByImageId(String imageId) {
-        imageRepository.findById(imageId)
+        imageRepository.findMetadataById(imageId)
                 .orElseThrow(() -> new ImageObjectNotFoundException("Image not found."));
         List<ImageObject> deleted = findAllByImageId(imageId);
 
-        deleted.forEach(imageObject->{
-            objectPointRepository.deleteAllByImageObjectId(imageObject.getId());
-        });
-        return objectRepository.deleteAllByImageId(imageId);
+        cascadeDeleteService.deleteObjects(deleted.stream().map(ImageObject::getId).toList());
+        return deleted;
     }
 }
@@ -2,26 +2,42 @@ package project.service;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
+import com.mongodb.MongoGridFSException;
 import org.apache.commons.io.IOUtils;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import com.mongodb.client.gridfs.model.GridFSFile;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.mongodb.gridfs.GridFsOperations;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 
 import project.model.exception.DatasetNotFoundException;
 import project.model.exception.ImageNotFoundException;
+import project.model.exception.ImageTooLargeException;
+import project.model.exception.InvalidGeometryException;
 import project.model.image.Image;
 import project.model.image.ImageObject;
+import project.model.image.ImageSummary;
+import project.model.image.ObjectGeometry;
 import project.model.image.ObjectPoint;
+import project.model.job.Job;
+import project.model.job.JobType;
+import project.model.response.CursorPage;
 import project.service.repository.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 
 @Service
@@ -37,6 +53,17 @@ public class ImageService {
     private final AuthUserRepository userRepository;
 
     private final GridFsOperations operations;
+    private final CursorPaginationService paginationService;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final JobService jobService;
+    private final AncestryResolver ancestryResolver;
+    private final MongoTemplate mongoTemplate;
+    private final GridFsMetrics gridFsMetrics;
+
+    private static final int CONTENT_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${images.upload.max-size:200MB}")
+    private DataSize maxUploadSize;
 
 
     public List<Image> findAllImages() {
@@ -64,27 +91,194 @@ public class ImageService {
         return imageRepository.findAllByDatasetId(datasetId).orElse(Collections.emptyList());
     }
 
+    public List<ImageSummary> findAllImageSummaries() {
+        return imageRepository.findAllSummaries();
+    }
+
+    public List<ImageSummary> findImageSummariesByCategory(String category) {
+        return imageRepository.findSummariesByCategoryContains(category).orElse(Collections.emptyList());
+    }
+
+    public List<ImageSummary> findImageSummariesByCategoriesContainingAllAndDatasetId(List<String> categories, String datasetId) {
+        return imageRepository.findSummariesByCategoriesContainingAllAndDatasetId(categories, datasetId)
+                .orElse(Collections.emptyList());
+    }
+
+    public List<ImageSummary> findImageSummariesByCategoriesContainingAll(List<String> categories) {
+        return imageRepository.findSummariesByCategoriesContainingAll(categories).orElse(Collections.emptyList());
+    }
+
+    public List<ImageSummary> findImageSummariesByDatasetId(String datasetId) {
+        return imageRepository.findSummariesByDatasetId(datasetId).orElse(Collections.emptyList());
+    }
+
+    public CursorPage<ImageSummary> findImageSummaryPageByDatasetId(String datasetId, String cursor, Integer limit) {
+        return paginationService.findPage(Image.class, ImageSummary.class,
+                Criteria.where("datasetId").is(datasetId), cursor, limit, ImageSummary::getId);
+    }
+
+    /**
+     * List<Image> loadImageData(List<Image> images)
+     * fills in the bytes of every image from GridFS, only for callers that explicitly ask for them
+     **/
+    public List<Image> loadImageData(List<Image> images) throws IOException {
+        for (Image image : images) {
+            GridFSFile gridFSFile = findImageFileOrNull(image);
+            if (gridFSFile == null) continue;
+            try (InputStream in = operations.getResource(gridFSFile).getInputStream()) {
+                image.setData(IOUtils.toByteArray(in));
+            }
+            gridFsMetrics.originalRead(image.getData().length);
+        }
+        return images;
+    }
+
     public Image findImageById(String id) throws IOException {
-        Image find = imageRepository.findById(id)
-                .orElseThrow(() -> new ImageNotFoundException("Image not found."));
-        GridFSFile gridFSFile = gridFsTemplate.findOne(new Query(Criteria.where("metadata.imageId").is(id)));
-//        assert gridFSFile != null;
-        if(gridFSFile != null)find.setData(IOUtils.toByteArray(operations.getResource(gridFSFile).getInputStream()));
+        Image find = findImageMetadataById(id);
+        loadImageData(List.of(find));
         return find;
     }
 
+    public Image findImageMetadataById(String id) {
+        return imageRepository.findMetadataById(id)
+                .orElseThrow(() -> new ImageNotFoundException("Image not found."));
+    }
+
+    public GridFSFile findImageFile(Image image) {
+        GridFSFile gridFSFile = findImageFileOrNull(image);
+        if (gridFSFile == null) throw new ImageNotFoundException("Image file not found.");
+        return gridFSFile;
+    }
+
+    /**
+     * GridFSFile findImageFileByImageId(String imageId)
+     * looks the original file up by metadata.imageId alone, without reading the image document
+     **/
+    public GridFSFile findImageFileByImageId(String imageId) {
+        GridFSFile gridFSFile = gridFsTemplate.findOne(new Query(Criteria.where("metadata.imageId").is(imageId)
+                .and(ImageDerivativeService.DERIVATIVE_SIZE_FIELD).exists(false)));
+        if (gridFSFile == null) throw new ImageNotFoundException("Image file not found.");
+        return gridFSFile;
+    }
+
+    private GridFSFile findImageFileOrNull(Image image) {
+        Query query = image.getFileId() != null
+                ? new Query(Criteria.where("_id").is(new ObjectId(image.getFileId())))
+                : new Query(Criteria.where("metadata.imageId").is(image.getId())
+                        .and(ImageDerivativeService.DERIVATIVE_SIZE_FIELD).exists(false));
+        return gridFsTemplate.findOne(query);
+    }
+
+    /**
+     * Copies the stored file into {@code out} chunk by chunk through a fixed size buffer,
+     * so heap use does not depend on the image size.
+     **/
+    public void copyImageContent(GridFSFile file, OutputStream out) throws IOException {
+        copyImageContent(file, 0, file.getLength(), out);
+    }
+
+    /**
+     * Copies {@code length} bytes of the stored file starting at {@code offset}.
+     * GridFS download streams implement skip() by jumping straight to the chunk holding
+     * {@code offset}, so chunks before the range are never fetched.
+     **/
+    public void copyImageContent(GridFSFile file, long offset, long length, OutputStream out) throws IOException {
+        try (InputStream in = operations.getResource(file).getInputStream()) {
+            long remaining = offset;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) throw new IOException("Unable to seek to offset " + offset + " of image file.");
+                remaining -= skipped;
+            }
+            long copied = IOUtils.copyLarge(in, out, 0, length, new byte[CONTENT_BUFFER_SIZE]);
+            if (file.getMetadata() != null && file.getMetadata().containsKey("derivativeSize"))
+                gridFsMetrics.derivativeRead(copied);
+            else
+                gridFsMetrics.originalRead(copied);
+        }
+    }
+
     public Image saveImage(Image image, MultipartFile data) throws IOException {
-       Image save = imageRepository.save(image);
+        try (InputStream in = data.getInputStream()) {
+            return storeImage(image, in, data.getOriginalFilename(), data.getContentType());
+        }
+    }
+
+    /**
+     * Image storeImage(Image image, InputStream content, String filename, String contentType)
+     * pipes the content into GridFS chunk by chunk, measuring size and SHA-256 checksum on the way,
+     * then saves the metadata document with a reference to the file
+     **/
+    public Image storeImage(Image image, InputStream content, String filename, String contentType) {
+        storeImageFile(image, content, filename, contentType);
+
+        try {
+            return imageRepository.save(image);
+        } catch (RuntimeException e) {
+            deleteImageFile(image);
+            throw e;
+        }
+    }
+
+    /**
+     * Image storeImageFile(Image image, InputStream content, String filename, String contentType)
+     * assigns the image id and writes the GridFS file only, the metadata document is left to the caller
+     **/
+    public Image storeImageFile(Image image, InputStream content, String filename, String contentType) {
+        image.setId(new ObjectId().toHexString());
+        image.setData(null);
 
         DBObject metadata = new BasicDBObject();
         metadata.put("imageId", image.getId());
 
-        gridFsTemplate.store(data.getInputStream(), data.getOriginalFilename(), data.getContentType(), metadata);
-        return save;
+        MeasuringInputStream measured = new MeasuringInputStream(content, maxUploadSize.toBytes());
+        ObjectId fileId;
+        try {
+            fileId = gridFsTemplate.store(measured, filename, contentType, metadata);
+        } catch (MongoGridFSException e) {
+            // the driver has already aborted the upload and removed its partial chunks
+            if (e.getCause() instanceof MeasuringInputStream.LimitExceededException limit)
+                throw new ImageTooLargeException(limit.getMessage());
+            throw e;
+        }
+        image.setFileId(fileId.toHexString());
+        image.setSize(measured.getCount());
+        gridFsMetrics.originalWritten(measured.getCount());
+        image.setChecksum(measured.getChecksum());
+        return image;
+    }
+
+    public void deleteImageFile(Image image) {
+        gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(image.getFileId()))));
     }
 
 
 
+    /**
+     * Image moveImage(String imageId, String datasetId)
+     * moves the image into another dataset, carrying the datasetId copied onto its objects and points along.
+     * Points and objects are moved first and the image document last: authorization follows the image,
+     * so until the last step everything still belongs to the old dataset, and a failed move can simply
+     * be repeated (every step is idempotent).
+     **/
+    public Image moveImage(String imageId, String datasetId) {
+        datasetRepository.findById(datasetId)
+                .orElseThrow(() -> new DatasetNotFoundException("Dataset not found."));
+        Image image = findImageMetadataById(imageId);
+
+        Update moved = Update.update("datasetId", datasetId);
+        List<String> objectIds = imageObjectService.findAllByImageId(imageId).stream().map(ImageObject::getId).toList();
+        if (!objectIds.isEmpty())
+            mongoTemplate.updateMulti(new Query(Criteria.where("imageObjectId").in(objectIds)), moved, ObjectPoint.class);
+        mongoTemplate.updateMulti(new Query(Criteria.where("imageId").is(imageId)), moved, ImageObject.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(imageId)), moved, Image.class);
+
+        image.setDatasetId(datasetId);
+
+        ancestryResolver.evictImage(imageId);
+        return image;
+    }
+
     public Image deleteImage(String id) {
         Image deleted = imageRepository.findById(id)
                 .orElseThrow(() -> new ImageNotFoundException("Image not found."));
@@ -96,22 +290,13 @@ public class ImageService {
 
         gridFsTemplate.delete(new Query(Criteria.where("metadata.imageId").is(id)));
         imageRepository.delete(deleted);
+        ancestryResolver.evictImage(id);
         return deleted;
     }
 
     public List<Image> deleteAllImagesByDatasetId(String datasetId) {
-        List<Image> deletedImages = new ArrayList<>();
-        List<Image> images = imageRepository.findAllByDatasetId(datasetId).orElse(Collections.emptyList());
-
-        images.forEach(image -> {
-            if (imageObjectService.findAllByImageId(image.getId()).isEmpty()) {
-                deletedImages.add(image);
-                imageRepository.delete(image);
-                imageObjectService.deleteAllByImageId(image.getId());
-
-            }
-        });
-        return deletedImages;
+        // images that still have objects are kept
+        return cascadeDeleteService.deleteImagesByDatasetId(datasetId, true);
     }
 
 
@@ -119,6 +304,10 @@ public class ImageService {
         return imageObjectService.findAll();
     }
 
+    public List<ImageObject> findAllImageObjectsByDatasetId(String datasetId) {
+        return imageObjectService.findAllByDatasetId(datasetId);
+    }
+
     public List<ImageObject> findAllImageObjectsByImageId(String id) {
         return imageObjectService.findAllByImageId(id);
     }
@@ -132,13 +321,29 @@ public class ImageService {
         return imageObjectService.save(imageObject);
     }
 
+    public List<ImageObject> saveAllImageObjects(String imageId, List<ImageObject> imageObjects) {
+        return imageObjectService.replaceAllByImageId(imageId, imageObjects);
+    }
+
     public ImageObject updateImageObject(ImageObject imageObject) {
         imageRepository.findById(imageObject.getImageId())
                 .orElseThrow(() -> new ImageNotFoundException("Image not found."));
         ImageObject existingObject = imageObjectService.findById(imageObject.getId());
         existingObject.setName(imageObject.getName());
         existingObject.setImageId(imageObject.getImageId());
-        return imageObjectService.save(existingObject);
+        ObjectGeometry previousGeometry = existingObject.getGeometry();
+        // older clients send name and imageId only, a missing geometry keeps the stored outline
+        if (imageObject.getGeometry() != null) existingObject.setGeometry(imageObject.getGeometry());
+        String previousDatasetId = existingObject.getDatasetId();
+        ImageObject saved = imageObjectService.save(existingObject);
+        if (imageObject.getGeometry() != null && !Objects.equals(previousGeometry, saved.getGeometry()))
+            // the new geometry replaces the outline, the legacy points would rebuild the old one
+            mongoTemplate.remove(new Query(Criteria.where("imageObjectId").is(saved.getId())), ObjectPoint.class);
+        else if (!Objects.equals(previousDatasetId, saved.getDatasetId()))
+            mongoTemplate.updateMulti(new Query(Criteria.where("imageObjectId").is(saved.getId())),
+                    Update.update("datasetId", saved.getDatasetId()), ObjectPoint.class);
+        ancestryResolver.evictObjects(List.of(saved.getId()));
+        return saved;
     }
 
     public ImageObject deleteImageObject(String id) {
@@ -147,16 +352,12 @@ public class ImageService {
 //        }
         objectPointRepository.deleteAllByImageObjectId(id);
         imageObjectService.deleteById(id);
+        ancestryResolver.evictObject(id);
         return deleted;
     }
 
     public List<ImageObject> deleteAllObjectByImageId(String id) {
-        List<ImageObject> objects = imageObjectService.deleteAllByImageId(id);
-
-        objects.forEach(object -> objectPointRepository.deleteAllByImageObjectId(object.getId()));
-
-
-        return objects;
+        return imageObjectService.deleteAllByImageId(id);
     }
 
     public List<ObjectPoint> findAllObjectPoints() {
@@ -167,36 +368,136 @@ public class ImageService {
         return objectPointRepository.findAllByImageObjectId(objectId).orElse(Collections.emptyList());
     }
 
+    public CursorPage<ObjectPoint> findObjectPointPage(String cursor, Integer limit) {
+        return paginationService.findPage(ObjectPoint.class, ObjectPoint.class, null, cursor, limit, ObjectPoint::getId);
+    }
+
+    public boolean existsObjectPoint(String id) {
+        return objectPointRepository.existsById(id);
+    }
+
     public ObjectPoint findObjectPointById(String id) {
         return objectPointRepository.findById(id).orElseThrow();
     }
 
+    /**
+     * ObjectPoint saveObjectPoint(ObjectPoint objectPoint)
+     * ImageObject.geometry is the authoritative outline, the points endpoints are kept for older
+     * clients: a new point is appended to the geometry, any other point write rebuilds the geometry of
+     * the affected objects from their points
+     **/
     public ObjectPoint saveObjectPoint(ObjectPoint objectPoint) {
-        return objectPointRepository.save(objectPoint);
+        double x = parseCoordinate(objectPoint.getX());
+        double y = parseCoordinate(objectPoint.getY());
+        String previousObjectId = objectPoint.getId() == null ? null
+                : objectPointRepository.findById(objectPoint.getId()).map(ObjectPoint::getImageObjectId).orElse(null);
+
+        objectPoint.setDatasetId(ancestryResolver.datasetIdOfObject(objectPoint.getImageObjectId()));
+        ObjectPoint saved = objectPointRepository.save(objectPoint);
+        if (previousObjectId == null) {
+            appendToGeometry(saved.getImageObjectId(), x, y);
+            return saved;
+        }
+
+        rebuildGeometry(saved.getImageObjectId());
+        if (!previousObjectId.equals(saved.getImageObjectId())) {
+            rebuildGeometry(previousObjectId);
+            ancestryResolver.evictPoint(saved.getId());
+        }
+        return saved;
     }
 
 
     public ObjectPoint deleteObjectPoint(String id) {
         ObjectPoint deleted = findObjectPointById(id);
         objectPointRepository.deleteById(id);
+        ancestryResolver.evictPoint(id);
+        rebuildGeometry(deleted.getImageObjectId());
         return deleted;
     }
 
     public List<ObjectPoint> deleteAllObjectPointByObjectId(String id) {
-        return objectPointRepository.deleteAllByImageObjectId(id).orElse(Collections.emptyList());
+        List<ObjectPoint> deleted = objectPointRepository.deleteAllByImageObjectId(id).orElse(Collections.emptyList());
+        deleted.forEach(point -> ancestryResolver.evictPoint(point.getId()));
+        rebuildGeometry(id);
+        return deleted;
     }
 
-    public List<Image> clearDataset(String datasetId) {
-        datasetRepository.findById(datasetId)
-                .orElseThrow(() -> new DatasetNotFoundException("Dataset not found.")
+    /**
+     * appends the vertex of a newly inserted point, when the stored geometry holds exactly the object's
+     * earlier points; drawing an outline point by point then reads one object instead of all its points
+     **/
+    private void appendToGeometry(String objectId, double x, double y) {
+        Query object = new Query(Criteria.where("_id").is(objectId));
+        object.fields().include("geometry");
+        ImageObject existing = mongoTemplate.findOne(object, ImageObject.class);
+        ObjectGeometry geometry = existing != null ? existing.getGeometry() : null;
+        long points = mongoTemplate.count(new Query(Criteria.where("imageObjectId").is(objectId)), ObjectPoint.class);
+        if (geometry == null || geometry.getX() == null || geometry.getX().length != points - 1) {
+            rebuildGeometry(objectId);
+            return;
+        }
+
+        double[] xs = Arrays.copyOf(geometry.getX(), geometry.getX().length + 1);
+        double[] ys = Arrays.copyOf(geometry.getY(), geometry.getY().length + 1);
+        xs[xs.length - 1] = x;
+        ys[ys.length - 1] = y;
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(objectId)),
+                Update.update("geometry", mongoTemplate.getConverter().convertToMongoType(new ObjectGeometry(xs, ys))),
+                ImageObject.class);
+    }
+
+    /**
+     * folds the remaining points of the object (in insertion order, as the geometry migration does)
+     * into ImageObjects.geometry, an object without points is left without a geometry. Reads every point
+     * of the object, so updates and deletes on the compatibility path cost O(points). Older points with
+     * non-numeric coordinates are left out, so a rebuild never fails after the point write went through.
+     **/
+    private void rebuildGeometry(String objectId) {
+        Query pointsQuery = new Query(Criteria.where("imageObjectId").is(objectId)).with(Sort.by("_id"));
+        pointsQuery.fields().include("x", "y");
+        List<ObjectPoint> points = mongoTemplate.find(pointsQuery, ObjectPoint.class);
+
+        double[] x = new double[points.size()];
+        double[] y = new double[points.size()];
+        int vertices = 0;
+        for (ObjectPoint point : points) {
+            try {
+                x[vertices] = parseCoordinate(point.getX());
+                y[vertices] = parseCoordinate(point.getY());
+                vertices++;
+            } catch (InvalidGeometryException ignored) {
+                // written before coordinates were validated
+            }
+        }
+
+        Query object = new Query(Criteria.where("_id").is(objectId));
+        if (vertices == 0) {
+            mongoTemplate.updateFirst(object, new Update().unset("geometry"), ImageObject.class);
+            return;
+        }
+        Object geometry = mongoTemplate.getConverter().convertToMongoType(
+                new ObjectGeometry(Arrays.copyOf(x, vertices), Arrays.copyOf(y, vertices)));
+        mongoTemplate.updateFirst(object, Update.update("geometry", geometry), ImageObject.class);
+    }
 
-                );
-        List<Image> datasetImages = findAllImagesByDatasetId(datasetId);
+    private double parseCoordinate(String coordinate) {
+        try {
+            return Double.parseDouble(coordinate);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new InvalidGeometryException("Point coordinates must be numbers.");
+        }
+    }
 
-        datasetImages.forEach(image -> {
-            // imageObject
-            imageObjectService.deleteAllByImageId(image.getId());
-        });
-        return deleteAllImagesByDatasetId(datasetId);
+    /**
+     * Job startDatasetClearing(String datasetId, String ownerId)
+     * deletes all images of the dataset with their annotations and files in a background job,
+     * the dataset itself is kept
+     **/
+    public Job startDatasetClearing(String datasetId, String ownerId) {
+        datasetRepository.findById(datasetId)
+                .orElseThrow(() -> new DatasetNotFoundException("Dataset not found."));
+        return jobService.submit(JobType.DATASET_CLEAR, datasetId, ownerId,
+                context -> cascadeDeleteService.deleteDatasetContent(datasetId, context));
     }
 }
@@ -0,0 +1,147 @@
+package project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Service;
+import project.model.response.IndexReport;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declares the indexes behind every hot query path and makes sure they exist. Runs once in the
+ * background after startup (so an unreachable database does not block it) and on demand; missing
+ * indexes are created, anything that differs from the declaration is reported as drift and only logged,
+ * existing indexes are never dropped or rebuilt automatically.
+ **/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexBootstrapper {
+
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile IndexReport lastReport;
+
+    private static Map<String, List<Index>> declaredIndexes() {
+        Map<String, List<Index>> indexes = new LinkedHashMap<>();
+        indexes.put("Images", List.of(
+                // datasetId filters plus keyset pagination by _id within a dataset
+                new Index().on("datasetId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("images_datasetId"),
+                new Index().on("datasetId", Sort.Direction.ASC).on("categories", Sort.Direction.ASC).named("images_datasetId_categories"),
+                new Index().on("categories", Sort.Direction.ASC).named("images_categories")));
+        indexes.put("ImageObjects", List.of(
+                new Index().on("imageId", Sort.Direction.ASC).named("imageObjects_imageId"),
+                new Index().on("datasetId", Sort.Direction.ASC).named("imageObjects_datasetId")));
+        indexes.put("ObjectPoints", List.of(
+                new Index().on("imageObjectId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("objectPoints_imageObjectId"),
+                new Index().on("datasetId", Sort.Direction.ASC).named("objectPoints_datasetId")));
+        indexes.put("UserDataset", List.of(
+                new Index().on("datasetId", Sort.Direction.ASC).on("userId", Sort.Direction.ASC).unique().named("userDataset_datasetId_userId"),
+                new Index().on("userId", Sort.Direction.ASC).named("userDataset_userId")));
+        indexes.put("UserProject", List.of(
+                new Index().on("projectId", Sort.Direction.ASC).on("userId", Sort.Direction.ASC).unique().named("userProject_projectId_userId"),
+                new Index().on("userId", Sort.Direction.ASC).named("userProject_userId")));
+        indexes.put("Datasets", List.of(
+                new Index().on("projectId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("datasets_projectId"),
+                new Index().on("ownerId", Sort.Direction.ASC).named("datasets_ownerId")));
+        indexes.put("Users", List.of(
+                new Index().on("username", Sort.Direction.ASC).unique().named("username")));
+        indexes.put("Jobs", List.of(
+                new Index().on("ownerId", Sort.Direction.ASC).named("jobs_ownerId"),
+                new Index().on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC).named("jobs_status_createdAt")));
+        indexes.put("fs.files", List.of(
+                new Index().on("metadata.imageId", Sort.Direction.ASC).on("metadata.derivativeSize", Sort.Direction.ASC)
+                        .named("files_imageId_derivativeSize"),
+                // created by the driver on the first GridFS upload
+                new Index().on("filename", Sort.Direction.ASC).on("uploadDate", Sort.Direction.ASC)
+                        .named("filename_1_uploadDate_1")));
+        indexes.put("fs.chunks", List.of(
+                // created by the driver on the first GridFS upload
+                new Index().on("files_id", Sort.Direction.ASC).on("n", Sort.Direction.ASC).unique()
+                        .named("files_id_1_n_1")));
+        return indexes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexesInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                ensureIndexes();
+            } catch (RuntimeException e) {
+                log.warn("Index bootstrap failed.", e);
+            }
+        }, "index-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * IndexReport ensureIndexes()
+     * creates the declared indexes that are missing and reports the ones that differ from the declaration
+     **/
+    public IndexReport ensureIndexes() {
+        IndexReport report = IndexReport.builder().checkedAt(new Date()).build();
+        declaredIndexes().forEach((collection, indexes) -> ensureIndexes(collection, indexes, report));
+
+        report.getDrift().forEach(drift -> log.warn("Index drift: {}", drift));
+        log.info("Index bootstrap finished: {} verified, {} created, {} drifted.",
+                report.getVerified().size(), report.getCreated().size(), report.getDrift().size());
+        lastReport = report;
+        return report;
+    }
+
+    public IndexReport getLastReport() {
+        return lastReport;
+    }
+
+    private void ensureIndexes(String collection, List<Index> indexes, IndexReport report) {
+        IndexOperations operations = mongoTemplate.indexOps(collection);
+        List<IndexInfo> existing = new ArrayList<>(operations.getIndexInfo());
+
+        for (Index index : indexes) {
+            String name = collection + "." + index.getIndexOptions().getString("name");
+            List<String> keys = new ArrayList<>(index.getIndexKeys().keySet());
+            boolean unique = Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+
+            IndexInfo match = existing.stream().filter(info -> keysOf(info).equals(keys)).findFirst().orElse(null);
+            if (match == null) {
+                try {
+                    operations.ensureIndex(index);
+                    report.getCreated().add(name);
+                } catch (RuntimeException e) {
+                    // e.g. duplicates preventing a unique index
+                    report.getDrift().add(name + " could not be created: " + e.getMessage());
+                }
+                continue;
+            }
+
+            existing.remove(match);
+            if (match.isUnique() != unique)
+                report.getDrift().add(name + " exists as " + match.getName() + " with unique=" + match.isUnique()
+                        + ", declared unique=" + unique);
+            else report.getVerified().add(name);
+        }
+
+        existing.stream()
+                .filter(info -> !ID_INDEX.equals(info.getName()))
+                .forEach(info -> report.getDrift().add(collection + "." + info.getName() + " is not declared"));
+    }
+
+    private List<String> keysOf(IndexInfo info) {
+        return info.getIndexFields().stream().map(IndexField::getKey).toList();
+    }
+}
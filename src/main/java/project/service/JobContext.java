@@ -0,0 +1,15 @@
+package project.service;
+
+/**
+ * Handed to a running job so it can report progress and stop early when cancellation was requested.
+ **/
+public interface JobContext {
+
+    void progress(long progress, Long total);
+
+    /**
+     * throws JobCancelledException once cancellation of the job was requested;
+     * call it between units of work, the job is marked CANCELLED when it propagates
+     **/
+    void checkCancelled();
+}
@@ -0,0 +1,214 @@
+package project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import project.model.exception.JobCancelledException;
+import project.model.exception.JobNotFoundException;
+import project.model.job.Job;
+import project.model.job.JobStatus;
+import project.model.job.JobType;
+import project.service.repository.JobRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs long operations off the request threads. Jobs are persisted in the Jobs collection and
+ * executed by a fixed pool of {@code jobs.concurrency} workers; further jobs wait as QUEUED.
+ * Cancellation is a flag on the job document that the running job polls between units of work,
+ * so it also works when the job runs on another instance.
+ * Each instance stamps its unfinished jobs with its {@code instanceId} and refreshes their
+ * {@code heartbeatAt} every {@code jobs.heartbeat.interval}; a QUEUED or RUNNING job whose heartbeat
+ * is older than {@code jobs.lease} belongs to an instance that is gone and is marked FAILED.
+ **/
+@Slf4j
+@Service
+public class JobService {
+
+    private final JobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService heartbeat;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Duration heartbeatInterval;
+    private final Duration lease;
+
+    public JobService(JobRepository jobRepository,
+                      MongoTemplate mongoTemplate,
+                      @Value("${jobs.concurrency:2}") int concurrency,
+                      @Value("${jobs.heartbeat.interval:30s}") Duration heartbeatInterval,
+                      @Value("${jobs.lease:2m}") Duration lease) {
+        if (lease.compareTo(heartbeatInterval.multipliedBy(2)) <= 0)
+            throw new IllegalArgumentException("jobs.lease must be longer than two jobs.heartbeat.interval.");
+        this.jobRepository = jobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.heartbeatInterval = heartbeatInterval;
+        this.lease = lease;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the heartbeat once the application is up. Every tick refreshes the jobs of this instance
+     * and fails the QUEUED or RUNNING jobs whose owner instance stopped heartbeating, also the ones
+     * left behind by a previous run of this application.
+     **/
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        heartbeat.scheduleWithFixedDelay(() -> {
+            try {
+                beat();
+                failAbandonedJobs();
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh job heartbeats.", e);
+            }
+        }, 0, heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void beat() {
+        mongoTemplate.updateMulti(new Query(Criteria.where("instanceId").is(instanceId)
+                        .and("status").in(JobStatus.QUEUED, JobStatus.RUNNING)),
+                Update.update("heartbeatAt", new Date()), Job.class);
+    }
+
+    private void failAbandonedJobs() {
+        Date expired = new Date(System.currentTimeMillis() - lease.toMillis());
+        Query abandoned = new Query(Criteria.where("status").in(JobStatus.QUEUED, JobStatus.RUNNING)
+                .and("instanceId").ne(instanceId)
+                .orOperator(Criteria.where("heartbeatAt").lt(expired),
+                        Criteria.where("heartbeatAt").exists(false).and("createdAt").lt(expired)));
+        long failed = mongoTemplate.updateMulti(abandoned, new Update()
+                .set("status", JobStatus.FAILED)
+                .set("message", "Interrupted, the instance running the job stopped.")
+                .set("finishedAt", new Date()), Job.class).getModifiedCount();
+        if (failed > 0) log.warn("Marked {} interrupted jobs as failed.", failed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Job submit(JobType type, String targetId, String ownerId, Consumer<JobContext> work)
+     * persists a QUEUED job and schedules work on the worker pool, returns immediately
+     **/
+    public Job submit(JobType type, String targetId, String ownerId, Consumer<JobContext> work) {
+        Job job = jobRepository.save(Job.builder()
+                .type(type)
+                .status(JobStatus.QUEUED)
+                .targetId(targetId)
+                .ownerId(ownerId)
+                .instanceId(instanceId)
+                .createdAt(new Date())
+                .heartbeatAt(new Date())
+                .build());
+        workers.execute(() -> run(job.getId(), work));
+        return job;
+    }
+
+    public Job findById(String id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new JobNotFoundException("Job not found."));
+    }
+
+    public List<Job> findAllByOwnerId(String ownerId) {
+        return jobRepository.findAllByOwnerId(ownerId).orElse(Collections.emptyList());
+    }
+
+    /**
+     * Job cancel(String id)
+     * a queued job is cancelled right away, a running one stops at its next cancellation check
+     **/
+    public Job cancel(String id) {
+        Job job = findById(id);
+        if (job.getStatus().isFinished()) return job;
+
+        mongoTemplate.updateFirst(byId(id), Update.update("cancelRequested", true), Job.class);
+        mongoTemplate.updateFirst(byId(id).addCriteria(Criteria.where("status").is(JobStatus.QUEUED)),
+                finished(JobStatus.CANCELLED, "Cancelled before start."), Job.class);
+        return findById(id);
+    }
+
+    private void run(String id, Consumer<JobContext> work) {
+        Job job = mongoTemplate.findAndModify(
+                byId(id).addCriteria(Criteria.where("status").is(JobStatus.QUEUED)),
+                new Update().set("status", JobStatus.RUNNING).set("startedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true), Job.class);
+        if (job == null) return; // cancelled while queued
+
+        try {
+            work.accept(new PersistentJobContext(id));
+            mongoTemplate.updateFirst(byId(id), finished(JobStatus.SUCCEEDED, null), Job.class);
+        } catch (JobCancelledException e) {
+            mongoTemplate.updateFirst(byId(id), finished(JobStatus.CANCELLED, e.getMessage()), Job.class);
+        } catch (Throwable e) {
+            log.error("Job {} ({} of {}) failed.", id, job.getType(), job.getTargetId(), e);
+            mongoTemplate.updateFirst(byId(id), finished(JobStatus.FAILED, e.getMessage()), Job.class);
+            if (e instanceof Error error) throw error;
+        }
+    }
+
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    private Update finished(JobStatus status, String message) {
+        return new Update().set("status", status).set("message", message).set("finishedAt", new Date());
+    }
+
+    private class PersistentJobContext implements JobContext {
+        private final String id;
+
+        private PersistentJobContext(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void progress(long progress, Long total) {
+            mongoTemplate.updateFirst(byId(id), new Update().set("progress", progress).set("total", total), Job.class);
+        }
+
+        @Override
+        public void checkCancelled() {
+            if (mongoTemplate.exists(byId(id).addCriteria(Criteria.where("cancelRequested").is(true)), Job.class))
+                throw new JobCancelledException("Cancelled.");
+        }
+    }
+
+    public ExecutorService getWorkers() {
+        return workers;
+    }
+}
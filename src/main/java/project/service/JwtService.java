@@ -1,17 +1,29 @@
 package project.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -20,12 +32,61 @@ public class JwtService {
 
     private static final String SECRET_KEY = "3b57cb8b8adf4bef03e30355f90476085fd4bda3b7115830d9b08b4a720d6932";
 
+    private static final int VERIFIED_TOKENS_MAX_SIZE = 10_000;
+    private static final Duration VERIFIED_TOKENS_MAX_TTL = Duration.ofMinutes(10);
+
+    private final Key signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    private final ThreadLocal<Mac> mediaMac = ThreadLocal.withInitial(this::createMediaMac);
+
+    /**
+     * Claims of recently verified tokens by SHA-256 digest of the token. An entry never outlives
+     * the token's own expiration, so a cached token is exactly as valid as a freshly verified one.
+     **/
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKENS_MAX_SIZE)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                    long untilExpiration = claims.getExpiration() != null
+                            ? claims.getExpiration().getTime() - System.currentTimeMillis()
+                            : VERIFIED_TOKENS_MAX_TTL.toMillis();
+                    return Duration.ofMillis(Math.max(0, Math.min(untilExpiration, VERIFIED_TOKENS_MAX_TTL.toMillis())))
+                            .toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+    /**
+     * Claims parseToken(String jwt)
+     * verifies the signature and expiration once and returns the claims; tokens verified recently
+     * are answered from the cache. Throws the parser's JwtException for invalid or expired tokens.
+     **/
+    public Claims parseToken(String jwt) {
+        return verifiedTokens.get(digest(jwt), digest -> parser.parseClaimsJws(jwt).getBody());
+    }
+
+    public Cache<?, ?> getVerifiedTokens() {
+        return verifiedTokens;
+    }
+
     public String extractUserName(String jwt) {
         return extractClaim(jwt, Claims::getSubject);
     }
 
     public <T> T extractClaim(String jwt, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(jwt);
+        final Claims claims = parseToken(jwt);
         return claimsResolver.apply(claims);
     }
 
@@ -35,17 +96,16 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String jwt, UserDetails userDetails) {
-        final String username = extractUserName(jwt);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(jwt);
+        return isTokenValid(parseToken(jwt), userDetails);
     }
 
-    private boolean isTokenExpired(String jwt) {
-
-        return extractExpiration(jwt).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null && claims.getSubject().equals(userDetails.getUsername())
+                && !isTokenExpired(claims);
     }
 
-    private Date extractExpiration(String jwt) {
-        return extractClaim(jwt, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
     public String generateToken(
@@ -57,25 +117,46 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 7 * 24 * 60 * 60 * 1000))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Claims extractAllClaims(String jwt) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(jwt)
-                .getBody();
-
+    /**
+     * String signMedia(String resource, long expiresAt)
+     * URL-safe HMAC-SHA256 of the resource and its expiry (epoch seconds) under the token signing key
+     **/
+    public String signMedia(String resource, long expiresAt) {
+        byte[] signature = mediaMac.get().doFinal((resource + "\n" + expiresAt).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * boolean verifyMedia(String resource, long expiresAt, String signature)
+     * true if the signature was issued by signMedia for this resource and has not expired yet
+     **/
+    public boolean verifyMedia(String resource, long expiresAt, String signature) {
+        if (signature == null || expiresAt * 1000 < System.currentTimeMillis()) return false;
+        return MessageDigest.isEqual(signMedia(resource, expiresAt).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
     }
 
+    private Mac createMediaMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signInKey);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 is not available.", e);
+        }
+    }
 
+    private String digest(String jwt) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
 
-}
\ No newline at end of file
+}
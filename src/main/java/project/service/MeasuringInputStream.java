@@ -0,0 +1,81 @@
+package project.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Pass-through stream that counts the bytes read, feeds them to a SHA-256 digest and fails
+ * once more than {@code maxBytes} have been read, so uploads can be measured while they stream.
+ * The limit is signalled as an IOException on purpose: GridFSBucket.uploadFromStream aborts the
+ * upload (deleting the chunks written so far) only for IOExceptions of the source stream.
+ **/
+class MeasuringInputStream extends FilterInputStream {
+
+    private final MessageDigest digest;
+    private final long maxBytes;
+    private long count;
+
+    MeasuringInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            digest.update((byte) b);
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            digest.update(buffer, offset, read);
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        // skipped bytes would be missing from the checksum
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    String getChecksum() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void advance(int read) throws LimitExceededException {
+        count += read;
+        if (count > maxBytes) throw new LimitExceededException("Image exceeds the maximum upload size of " + maxBytes + " bytes.");
+    }
+
+    static class LimitExceededException extends IOException {
+        LimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
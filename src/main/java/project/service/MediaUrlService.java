@@ -0,0 +1,74 @@
+package project.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.model.image.ImageSummary;
+import project.model.response.CursorPage;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Issues and verifies signed URLs of image bytes under /api/media, so browsers can load images
+ * with plain {@code <img>} tags. A URL carries the image id, its expiry and an HMAC from JwtService;
+ * verifying it needs neither the user nor the database.
+ * Expiry is aligned to the TTL, so listings within the same window hand out identical URLs and
+ * the browser cache keeps working. A URL stays valid between one and two TTLs.
+ **/
+@Service
+public class MediaUrlService {
+
+    public static final String MEDIA_PATH = "/api/media";
+    public static final String IMAGES = "images";
+    public static final String THUMBNAILS = "thumbnails";
+
+    private final JwtService jwtService;
+    private final long ttlSeconds;
+
+    public MediaUrlService(JwtService jwtService,
+                           @Value("${media.urls.ttl:10m}") Duration ttl) {
+        this.jwtService = jwtService;
+        this.ttlSeconds = Math.max(1, ttl.toSeconds());
+    }
+
+    public String imageUrl(String imageId) {
+        return signedUrl(IMAGES, imageId, expiresAt());
+    }
+
+    public String thumbnailUrl(String imageId) {
+        return signedUrl(THUMBNAILS, imageId, expiresAt());
+    }
+
+    public List<ImageSummary> withUrls(List<ImageSummary> summaries) {
+        long expiresAt = expiresAt();
+        for (ImageSummary summary : summaries) {
+            summary.setUrl(signedUrl(IMAGES, summary.getId(), expiresAt));
+            summary.setThumbnailUrl(signedUrl(THUMBNAILS, summary.getId(), expiresAt));
+        }
+        return summaries;
+    }
+
+    public CursorPage<ImageSummary> withUrls(CursorPage<ImageSummary> page) {
+        withUrls(page.getItems());
+        return page;
+    }
+
+    /**
+     * boolean verify(String kind, String imageId, long expiresAt, String signature)
+     * true for an unexpired URL issued by this service for the image and kind
+     **/
+    public boolean verify(String kind, String imageId, long expiresAt, String signature) {
+        return jwtService.verifyMedia(kind + "/" + imageId, expiresAt, signature);
+    }
+
+    private String signedUrl(String kind, String imageId, long expiresAt) {
+        return MEDIA_PATH + "/" + kind + "/" + imageId
+                + "?expires=" + expiresAt
+                + "&signature=" + jwtService.signMedia(kind + "/" + imageId, expiresAt);
+    }
+
+    private long expiresAt() {
+        long now = System.currentTimeMillis() / 1000;
+        return (now / ttlSeconds + 2) * ttlSeconds;
+    }
+}
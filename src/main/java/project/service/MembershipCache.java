@@ -0,0 +1,90 @@
+package project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.model.dataset.UserDataset;
+import project.model.project.UserProject;
+import project.model.user.SystemRole;
+import project.model.user.TokenMemberships;
+import project.service.repository.UserDatasetRepository;
+import project.service.repository.UserProjectRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process cache of the caller's role in a dataset or project, (userId, datasetId/projectId) to
+ * SystemRole, used by the authorization checks. "Not a member" is cached as well. UserDatasetService
+ * and UserProjectService evict the affected entries on every membership change; the TTL bounds
+ * staleness for changes made by other instances. Requests carrying current token memberships
+ * (see TokenMembershipService) are answered from the token without touching the cache.
+ **/
+@Service
+public class MembershipCache {
+
+    private final UserDatasetRepository userDatasetRepository;
+    private final UserProjectRepository userProjectRepository;
+    private final TokenMembershipService tokenMemberships;
+
+    private final Cache<Membership, Optional<SystemRole>> datasetRoles;
+    private final Cache<Membership, Optional<SystemRole>> projectRoles;
+
+    public MembershipCache(UserDatasetRepository userDatasetRepository,
+                           UserProjectRepository userProjectRepository,
+                           TokenMembershipService tokenMemberships,
+                           @Value("${memberships.cache.max-size:50000}") long maxSize,
+                           @Value("${memberships.cache.ttl:5m}") Duration ttl) {
+        this.userDatasetRepository = userDatasetRepository;
+        this.userProjectRepository = userProjectRepository;
+        this.tokenMemberships = tokenMemberships;
+        this.datasetRoles = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.projectRoles = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    public Optional<SystemRole> findDatasetRole(String datasetId, String userId) {
+        Optional<TokenMemberships> token = tokenMemberships.current(userId);
+        if (token.isPresent()) return token.get().findDatasetRole(datasetId);
+
+        return datasetRoles.get(new Membership(userId, datasetId), key -> userDatasetRepository
+                .findFirstByDatasetIdAndUserId(datasetId, userId)
+                .map(UserDataset::getUserRole));
+    }
+
+    public Optional<SystemRole> findProjectRole(String projectId, String userId) {
+        Optional<TokenMemberships> token = tokenMemberships.current(userId);
+        if (token.isPresent()) return token.get().findProjectRole(projectId);
+
+        return projectRoles.get(new Membership(userId, projectId), key -> userProjectRepository
+                .findFirstByProjectIdAndUserId(projectId, userId)
+                .map(UserProject::getUserRole));
+    }
+
+    public void invalidateDataset(String datasetId, String userId) {
+        datasetRoles.invalidate(new Membership(userId, datasetId));
+    }
+
+    public void invalidateDataset(String datasetId) {
+        datasetRoles.asMap().keySet().removeIf(membership -> membership.resourceId().equals(datasetId));
+    }
+
+    public void invalidateProject(String projectId, String userId) {
+        projectRoles.invalidate(new Membership(userId, projectId));
+    }
+
+    public void invalidateProject(String projectId) {
+        projectRoles.asMap().keySet().removeIf(membership -> membership.resourceId().equals(projectId));
+    }
+
+    public Cache<?, ?> getDatasetRoles() {
+        return datasetRoles;
+    }
+
+    public Cache<?, ?> getProjectRoles() {
+        return projectRoles;
+    }
+
+    private record Membership(String userId, String resourceId) {
+    }
+}
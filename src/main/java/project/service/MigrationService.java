@@ -0,0 +1,241 @@
+package project.service;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+import project.model.image.Image;
+import project.model.image.ImageObject;
+import project.model.image.ObjectGeometry;
+import project.model.image.ObjectPoint;
+import project.model.response.MigrationReport;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off data migrations. Each migration is idempotent and works through the collection one
+ * document at a time, so it can be run online and re-run after an interruption.
+ **/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MigrationService {
+
+    private static final int CURSOR_BATCH_SIZE = 100;
+    private static final int BULK_WRITE_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+
+    /**
+     * MigrationReport migrateInlineImageData()
+     * moves legacy Images.data payloads into GridFS (reusing the GridFS copy written at upload when
+     * it exists), links the file through Images.fileId and removes the inline bytes
+     **/
+    public MigrationReport migrateInlineImageData() {
+        MongoCollection<Document> images = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Image.class));
+        MigrationReport report = MigrationReport.builder().migration("inline-image-data").build();
+
+        try (MongoCursor<Document> cursor = images
+                .find(Filters.or(Filters.exists("data"), Filters.exists("fileId", false)))
+                .projection(Projections.include("_id"))
+                .batchSize(CURSOR_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Object id = cursor.next().get("_id");
+                report.setProcessed(report.getProcessed() + 1);
+
+                if (migrateInlineImageData(images, id)) report.setMigrated(report.getMigrated() + 1);
+                else report.setSkipped(report.getSkipped() + 1);
+            }
+        }
+
+        log.info("Migration {} finished: {}", report.getMigration(), report);
+        return report;
+    }
+
+    private boolean migrateInlineImageData(MongoCollection<Document> images, Object id) {
+        // the payload is loaded for one image at a time to keep the heap bounded
+        Document image = images.find(Filters.eq("_id", id))
+                .projection(Projections.include("name", "format", "data"))
+                .first();
+        if (image == null) return false;
+
+        String imageId = id.toString();
+        GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("metadata.imageId").is(imageId)
+                .and(ImageDerivativeService.DERIVATIVE_SIZE_FIELD).exists(false)));
+        ObjectId fileId;
+        long size;
+
+        if (file != null) {
+            fileId = file.getObjectId();
+            size = file.getLength();
+        } else if (image.get("data") instanceof Binary binary) {
+            DBObject metadata = new BasicDBObject();
+            metadata.put("imageId", imageId);
+            fileId = gridFsTemplate.store(new ByteArrayInputStream(binary.getData()),
+                    image.getString("name"), image.getString("format"), metadata);
+            size = binary.getData().length;
+        } else {
+            log.warn("Image {} has neither inline data nor a GridFS file, skipping.", imageId);
+            return false;
+        }
+
+        images.updateOne(Filters.eq("_id", id), Updates.combine(
+                Updates.unset("data"),
+                Updates.set("fileId", fileId.toHexString()),
+                Updates.set("size", size)));
+        return true;
+    }
+
+    /**
+     * MigrationReport migrateObjectPointsToGeometry()
+     * folds the ObjectPoints of every ImageObject (in insertion order) into the embedded
+     * ImageObjects.geometry; objects that already have a geometry are left untouched and the
+     * ObjectPoints documents are kept
+     **/
+    public MigrationReport migrateObjectPointsToGeometry() {
+        MongoCollection<Document> points = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ObjectPoint.class));
+        MongoCollection<Document> objects = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ImageObject.class));
+        MigrationReport report = MigrationReport.builder().migration("object-points-geometry").build();
+
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        String currentObjectId = null;
+        List<Document> outline = new ArrayList<>();
+
+        try (MongoCursor<Document> cursor = points.find()
+                .projection(Projections.include("imageObjectId", "x", "y"))
+                .sort(Sorts.ascending("imageObjectId", "_id"))
+                .allowDiskUse(true)
+                .batchSize(CURSOR_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document point = cursor.next();
+                String objectId = point.getString("imageObjectId");
+                if (currentObjectId != null && !currentObjectId.equals(objectId)) {
+                    addGeometryUpdate(updates, currentObjectId, outline, report);
+                    outline = new ArrayList<>();
+                    if (updates.size() >= BULK_WRITE_SIZE) writeGeometryUpdates(objects, updates, report);
+                }
+                currentObjectId = objectId;
+                outline.add(point);
+            }
+        }
+        if (currentObjectId != null) addGeometryUpdate(updates, currentObjectId, outline, report);
+        writeGeometryUpdates(objects, updates, report);
+
+        log.info("Migration {} finished: {}", report.getMigration(), report);
+        return report;
+    }
+
+    private void addGeometryUpdate(List<WriteModel<Document>> updates, String objectId, List<Document> outline,
+                                   MigrationReport report) {
+        report.setProcessed(report.getProcessed() + 1);
+
+        double[] x = new double[outline.size()];
+        double[] y = new double[outline.size()];
+        try {
+            for (int i = 0; i < outline.size(); i++) {
+                x[i] = Double.parseDouble(String.valueOf(outline.get(i).get("x")));
+                y[i] = Double.parseDouble(String.valueOf(outline.get(i).get("y")));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Image object {} has non-numeric points, skipping.", objectId);
+            report.setSkipped(report.getSkipped() + 1);
+            return;
+        }
+
+        Object geometry = mongoTemplate.getConverter().convertToMongoType(new ObjectGeometry(x, y));
+        Object id = objectId != null && ObjectId.isValid(objectId) ? new ObjectId(objectId) : objectId;
+        updates.add(new UpdateOneModel<>(
+                Filters.and(Filters.eq("_id", id), Filters.exists("geometry", false)),
+                Updates.set("geometry", geometry)));
+    }
+
+    private void writeGeometryUpdates(MongoCollection<Document> objects, List<WriteModel<Document>> updates,
+                                      MigrationReport report) {
+        if (updates.isEmpty()) return;
+
+        BulkWriteResult result = objects.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        report.setMigrated(report.getMigrated() + result.getModifiedCount());
+        // objects that are gone or were migrated before
+        report.setSkipped(report.getSkipped() + updates.size() - result.getModifiedCount());
+        updates.clear();
+    }
+
+    /**
+     * MigrationReport backfillAnnotationDatasetIds()
+     * copies Images.datasetId onto their ImageObjects and then ImageObjects.datasetId onto their
+     * ObjectPoints, with one updateMany per dataset and batch of parents; processed counts the parents
+     * walked, migrated the children updated
+     **/
+    public MigrationReport backfillAnnotationDatasetIds() {
+        MigrationReport report = MigrationReport.builder().migration("annotation-dataset-ids").build();
+
+        copyDatasetIds(mongoTemplate.getCollection(mongoTemplate.getCollectionName(Image.class)),
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(ImageObject.class)), "imageId", report);
+        copyDatasetIds(mongoTemplate.getCollection(mongoTemplate.getCollectionName(ImageObject.class)),
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(ObjectPoint.class)), "imageObjectId", report);
+
+        log.info("Migration {} finished: {}", report.getMigration(), report);
+        return report;
+    }
+
+    private void copyDatasetIds(MongoCollection<Document> parents, MongoCollection<Document> children,
+                                String parentField, MigrationReport report) {
+        Map<String, List<String>> parentIdsByDataset = new HashMap<>();
+        int batched = 0;
+
+        try (MongoCursor<Document> cursor = parents.find(Filters.exists("datasetId"))
+                .projection(Projections.include("datasetId"))
+                .batchSize(BULK_WRITE_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document parent = cursor.next();
+                parentIdsByDataset.computeIfAbsent(parent.getString("datasetId"), datasetId -> new ArrayList<>())
+                        .add(parent.get("_id").toString());
+                report.setProcessed(report.getProcessed() + 1);
+
+                if (++batched == BULK_WRITE_SIZE) {
+                    updateDatasetIds(children, parentField, parentIdsByDataset, report);
+                    batched = 0;
+                }
+            }
+        }
+        updateDatasetIds(children, parentField, parentIdsByDataset, report);
+    }
+
+    private void updateDatasetIds(MongoCollection<Document> children, String parentField,
+                                  Map<String, List<String>> parentIdsByDataset, MigrationReport report) {
+        parentIdsByDataset.forEach((datasetId, parentIds) -> {
+            long modified = children.updateMany(
+                    Filters.and(Filters.in(parentField, parentIds), Filters.ne("datasetId", datasetId)),
+                    Updates.set("datasetId", datasetId)).getModifiedCount();
+            report.setMigrated(report.getMigrated() + modified);
+        });
+        parentIdsByDataset.clear();
+    }
+}
@@ -11,6 +11,7 @@ import project.model.exception.UserNotFoundException;
 import project.model.project.Project;
 import project.model.project.UserProject;
 import project.model.project.UserProjectDetails;
+import project.model.response.CursorPage;
 import project.model.user.AuthUser;
 import project.model.user.SystemRole;
 import project.service.repository.DatasetRepository;
@@ -30,6 +31,7 @@ public class ProjectService {
 
     private final DatasetRepository datasetRepository;
     private final UserProjectService userProjectService;
+    private final CursorPaginationService paginationService;
 
     //private final JwtService jwtService;
 
@@ -41,6 +43,14 @@ public class ProjectService {
         return Optional.of(projectRepository.findAll());
     }
 
+    /**
+     * CursorPage<Project> findPage(String cursor, Integer limit)
+     * return one page of all projects in database, ordered by id
+     **/
+    public CursorPage<Project> findPage(String cursor, Integer limit) {
+        return paginationService.findPage(Project.class, Project.class, null, cursor, limit, Project::getId);
+    }
+
     /**
      * List<Project> findProjectsByOwnerId(String id)
      * return list of all projects in database by owner id
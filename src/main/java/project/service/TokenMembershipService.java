@@ -0,0 +1,91 @@
+package project.service;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import project.model.dataset.UserDataset;
+import project.model.project.UserProject;
+import project.model.user.AuthUser;
+import project.model.user.SystemRole;
+import project.model.user.TokenMemberships;
+import project.service.repository.UserDatasetRepository;
+import project.service.repository.UserProjectRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Optional stateless authorization: with jwt.membership-claims.enabled the issued tokens carry the
+ * user's dataset and project roles together with the user's membershipVersion. A request whose token
+ * version still matches the user is authorized from the token alone, any membership change bumps
+ * the version, so older tokens fall back to MembershipCache and the database.
+ * Users with more than jwt.membership-claims.max-entries memberships get tokens without them.
+ * The version is compared against the user held by AuthUserCache. A bump evicts that user only on
+ * the instance that made the membership change, so other instances keep accepting the revoked
+ * claims for up to users.cache.ttl; the same window MembershipCache already has for role changes
+ * (memberships.cache.ttl). Lower both TTLs if that is too long for a deployment.
+ **/
+@Service
+public class TokenMembershipService {
+
+    private final UserDatasetRepository userDatasetRepository;
+    private final UserProjectRepository userProjectRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    public TokenMembershipService(UserDatasetRepository userDatasetRepository,
+                                  UserProjectRepository userProjectRepository,
+                                  @Value("${jwt.membership-claims.enabled:false}") boolean enabled,
+                                  @Value("${jwt.membership-claims.max-entries:200}") int maxEntries) {
+        this.userDatasetRepository = userDatasetRepository;
+        this.userProjectRepository = userProjectRepository;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Map<String, Object> claimsFor(AuthUser user)
+     * returns the membership claims to embed into a new token of the user, empty when disabled
+     **/
+    public Map<String, Object> claimsFor(AuthUser user) {
+        if (!enabled || user.getId() == null) return new HashMap<>();
+
+        List<UserDataset> datasets = userDatasetRepository.findAllByUserId(user.getId()).orElse(List.of());
+        List<UserProject> projects = userProjectRepository.findUserProjectsByUserId(user.getId()).orElse(List.of());
+        if (datasets.size() + projects.size() > maxEntries) return new HashMap<>();
+
+        Map<String, SystemRole> datasetRoles = new HashMap<>();
+        datasets.forEach(link -> datasetRoles.put(link.getDatasetId(), link.getUserRole()));
+        Map<String, SystemRole> projectRoles = new HashMap<>();
+        projects.forEach(link -> projectRoles.put(link.getProjectId(), link.getUserRole()));
+
+        return new TokenMemberships(user.getId(), user.getMembershipVersion(), datasetRoles, projectRoles).toClaims();
+    }
+
+    /**
+     * Optional<TokenMemberships> resolve(Claims claims, AuthUser user)
+     * returns the token's memberships if they are still current for the user
+     **/
+    public Optional<TokenMemberships> resolve(Claims claims, AuthUser user) {
+        if (!enabled) return Optional.empty();
+        return TokenMemberships.fromClaims(user.getId(), claims)
+                .filter(memberships -> memberships.version() == user.getMembershipVersion());
+    }
+
+    /**
+     * TokenMemberships current(String userId)
+     * returns the verified token memberships of the current request if they belong to userId
+     **/
+    public Optional<TokenMemberships> current(String userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return Optional.empty();
+
+        return Optional.ofNullable(attributes.getAttribute(TokenMemberships.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))
+                .map(TokenMemberships.class::cast)
+                .filter(memberships -> memberships.userId().equals(userId));
+    }
+}
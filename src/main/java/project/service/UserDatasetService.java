@@ -11,6 +11,7 @@ import project.service.repository.UserDatasetRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -19,6 +20,8 @@ import java.util.stream.Collectors;
 public class UserDatasetService {
     private final UserDatasetRepository userDatasetRepository;
     private final AuthUserRepository userService;
+    private final MembershipCache membershipCache;
+    private final AuthUserService authUserService;
 
     public List<UserDataset> findAll() {
         return userDatasetRepository.findAll();
@@ -49,15 +52,24 @@ public class UserDatasetService {
                 .ifPresent(s->{
                     throw new UnsupportedOperationException("User-dataset link already exists.");
                 });
-        return userDatasetRepository.save(userDataset);
+        UserDataset saved = userDatasetRepository.save(userDataset);
+        membershipCache.invalidateDataset(saved.getDatasetId(), saved.getUserId());
+        authUserService.bumpMembershipVersions(List.of(saved.getUserId()));
+        return saved;
     }
 
     public UserDataset update(UserDataset userDataset) {
         UserDataset existingUserDataset = userDatasetRepository.findById(userDataset.getId()).get();
+        String previousDatasetId = existingUserDataset.getDatasetId();
+        String previousUserId = existingUserDataset.getUserId();
         existingUserDataset.setUserId(userDataset.getUserId());
         existingUserDataset.setDatasetId(userDataset.getDatasetId());
         existingUserDataset.setUserRole(userDataset.getUserRole());
-        return userDatasetRepository.save(existingUserDataset);
+        UserDataset saved = userDatasetRepository.save(existingUserDataset);
+        membershipCache.invalidateDataset(previousDatasetId, previousUserId);
+        membershipCache.invalidateDataset(saved.getDatasetId(), saved.getUserId());
+        authUserService.bumpMembershipVersions(Set.of(previousUserId, saved.getUserId()));
+        return saved;
     }
 
     public UserDataset deleteById(String id) {
@@ -65,11 +77,16 @@ public class UserDatasetService {
         if (deleted.getUserRole().equals(SystemRole.DATASET_OWNER))
             throw new UnsupportedOperationException("Dataset owner cannot be deleted.");
         userDatasetRepository.deleteById(id);
+        membershipCache.invalidateDataset(deleted.getDatasetId(), deleted.getUserId());
+        authUserService.bumpMembershipVersions(List.of(deleted.getUserId()));
         return deleted;
     }
 
     public Optional<List<UserDataset>> deleteAllByDatasetId(String id) {
-        return userDatasetRepository.deleteUserDatasetsByDatasetId(id);
+        Optional<List<UserDataset>> deleted = userDatasetRepository.deleteUserDatasetsByDatasetId(id);
+        membershipCache.invalidateDataset(id);
+        deleted.ifPresent(links -> authUserService.bumpMembershipVersions(usersString(links)));
+        return deleted;
     }
 
     public boolean isDatasetOwner(String datasetId, String userId) {
@@ -94,9 +111,8 @@ public class UserDatasetService {
     }
 
     public boolean userContainsAuthorityToEdit(String datasetId, String userId) {
-        return userDatasetRepository
-                .findFirstByDatasetIdAndUserId(datasetId, userId)
-                .map(UserDataset::getUserRole)
+        return membershipCache
+                .findDatasetRole(datasetId, userId)
                 .filter(role -> role.equals(SystemRole.DATASET_OWNER) || role.equals(SystemRole.DATASET_LABEL))
                 .isPresent();
     }
@@ -10,6 +10,7 @@ import project.service.repository.UserProjectRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -19,6 +20,7 @@ public class UserProjectService {
 
     private final UserProjectRepository userProjectRepository;
     private final AuthUserService userService;
+    private final MembershipCache membershipCache;
 
     public List<UserProject> findAll() {
         return userProjectRepository.findAll();
@@ -49,7 +51,9 @@ public class UserProjectService {
     }
 
     public void deleteAllByProjectId(String projectId) {
-        userProjectRepository.deleteAllByProjectId(projectId);
+        Optional<List<UserProject>> deleted = userProjectRepository.deleteAllByProjectId(projectId);
+        membershipCache.invalidateProject(projectId);
+        deleted.ifPresent(links -> userService.bumpMembershipVersions(usersString(links)));
     }
 
     public UserProject save(UserProject userProject) {
@@ -57,7 +61,10 @@ public class UserProjectService {
                 .ifPresent(s -> {
                     throw new UnsupportedOperationException("User-project link already exists.");
                 });
-        return userProjectRepository.save(userProject);
+        UserProject saved = userProjectRepository.save(userProject);
+        membershipCache.invalidateProject(saved.getProjectId(), saved.getUserId());
+        userService.bumpMembershipVersions(List.of(saved.getUserId()));
+        return saved;
     }
 
     public UserProject update(UserProject userProject) {
@@ -68,10 +75,16 @@ public class UserProjectService {
             throw new UnsupportedOperationException("User-project link already exists.");
         }
 
+        String previousProjectId = existing.getProjectId();
+        String previousUserId = existing.getUserId();
         existing.setProjectId(userProject.getProjectId());
         existing.setUserId(userProject.getUserId());
         existing.setUserRole(userProject.getUserRole());
-        return userProjectRepository.save(existing);
+        UserProject saved = userProjectRepository.save(existing);
+        membershipCache.invalidateProject(previousProjectId, previousUserId);
+        membershipCache.invalidateProject(saved.getProjectId(), saved.getUserId());
+        userService.bumpMembershipVersions(Set.of(previousUserId, saved.getUserId()));
+        return saved;
     }
 
     public UserProject deleteById(String projectId) {
@@ -83,6 +96,8 @@ public class UserProjectService {
         }
 
         userProjectRepository.deleteById(projectId);
+        membershipCache.invalidateProject(userProject.getProjectId(), userProject.getUserId());
+        userService.bumpMembershipVersions(List.of(userProject.getUserId()));
         return userProject;
     }
 
@@ -101,9 +116,8 @@ public class UserProjectService {
     }
 
     public boolean userContainsAuthorityToEdit(String projectId, String userId) {
-        return userProjectRepository
-                .findFirstByProjectIdAndUserId(projectId, userId)
-                .map(UserProject::getUserRole)
+        return membershipCache
+                .findProjectRole(projectId, userId)
                 .filter(role -> role == SystemRole.PROJECT_OWNER || role == SystemRole.PROJECT_DATASET)
                 .isPresent();
     }
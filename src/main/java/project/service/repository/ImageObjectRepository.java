@@ -10,6 +10,8 @@ import java.util.*;
 public interface ImageObjectRepository  extends MongoRepository<ImageObject,String> {
     List<ImageObject> findAllByImageId(String id);
 
+    List<ImageObject> findAllByDatasetId(String datasetId);
+
     List<ImageObject>deleteAllByImageId (String id);
 
 }
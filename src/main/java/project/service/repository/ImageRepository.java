@@ -4,6 +4,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import project.model.image.Image;
+import project.model.image.ImageSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +12,11 @@ import java.util.Optional;
 @Repository
 public interface ImageRepository extends MongoRepository<Image, String> {
 
+    String SUMMARY_FIELDS = "{ 'name': 1, 'format': 1, 'size': 1, 'datasetId': 1, 'categories': 1 }";
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'data': 0 }")
+    Optional<Image> findMetadataById(String id);
+
     Optional<List<Image>> findAllByName(String name);
     Optional<List<Image>> findAllByDatasetId(String datasetId);
 
@@ -24,6 +30,19 @@ public interface ImageRepository extends MongoRepository<Image, String> {
     @Query("{ 'categories': { $all: ?0 }, 'datasetId': ?1 }")
     Optional<List<Image>>findByCategoriesContainingAllAndDatasetId(List<String> categories, String datasetId);
 
+    @Query(value = "{}", fields = SUMMARY_FIELDS)
+    List<ImageSummary> findAllSummaries();
+
+    @Query(value = "{ 'datasetId': ?0 }", fields = SUMMARY_FIELDS)
+    Optional<List<ImageSummary>> findSummariesByDatasetId(String datasetId);
+
+    @Query(value = "{ 'categories': ?0 }", fields = SUMMARY_FIELDS)
+    Optional<List<ImageSummary>> findSummariesByCategoryContains(String category);
+
+    @Query(value = "{ 'categories': { $all: ?0 } }", fields = SUMMARY_FIELDS)
+    Optional<List<ImageSummary>> findSummariesByCategoriesContainingAll(List<String> categories);
 
+    @Query(value = "{ 'categories': { $all: ?0 }, 'datasetId': ?1 }", fields = SUMMARY_FIELDS)
+    Optional<List<ImageSummary>> findSummariesByCategoriesContainingAllAndDatasetId(List<String> categories, String datasetId);
 
 }
@@ -0,0 +1,13 @@
+package project.service.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import project.model.job.Job;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobRepository extends MongoRepository<Job, String> {
+    Optional<List<Job>> findAllByOwnerId(String ownerId);
+}
@@ -0,0 +1,46 @@
+package project.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import project.configuration.PermissionMaskEvaluator;
+import project.model.user.AuthUser;
+import project.model.user.SystemRole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authority lookup of the principal and the @PreAuthorize permission check done on every guarded call.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AuthorityBenchmark {
+
+    @Param({"SYSTEM_ADMIN", "SYSTEM_RESEARCHER", "DATASET_OWNER"})
+    public SystemRole role;
+
+    private PermissionMaskEvaluator evaluator;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        AuthUser user = AuthUser.builder().id("1").username("user").role(role).build();
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        evaluator = new PermissionMaskEvaluator();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return evaluator.hasPermission(authentication, null, "admin:read,researcher:read");
+    }
+}
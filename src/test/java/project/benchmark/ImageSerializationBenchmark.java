@@ -0,0 +1,68 @@
+package project.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import project.model.image.Image;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of an image listing page, as the listing endpoints return it: metadata only,
+ * or with the bytes included (include=data), where Jackson base64-encodes every image.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ImageSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"16384", "262144"})
+    public int imageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Image> withoutData;
+    private List<Image> withData;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        withoutData = new ArrayList<>();
+        withData = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            byte[] data = new byte[imageSize];
+            random.nextBytes(data);
+            withoutData.add(image(i, null));
+            withData.add(image(i, data));
+        }
+    }
+
+    private Image image(int i, byte[] data) {
+        return Image.builder()
+                .id("image-" + i)
+                .name("image-" + i + ".jpg")
+                .format("image/jpeg")
+                .data(data)
+                .datasetId("dataset")
+                .categories(List.of("car", "person"))
+                .size((long) imageSize)
+                .fileId("file-" + i)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeWithoutData() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(withoutData);
+    }
+
+    @Benchmark
+    public byte[] serializeWithData() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(withData);
+    }
+}
@@ -0,0 +1,92 @@
+package project.benchmark;
+
+import java.beans.Introspector;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-in for the Spring Data repositories, so services can be benchmarked without MongoDB.
+ * Supports findAll, findAllById(Iterable) and derived finders whose conditions are property equalities
+ * joined by "And" (findAllByDatasetId, findFirstByProjectIdAndUserId, findAuthUsersById, ...), returning
+ * T, Optional<T>, List<T> or Optional<List<T>>. Every other method throws UnsupportedOperationException.
+ **/
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R, T> R of(Class<R> repositoryType, Collection<T> entities, Function<T, String> idOf) {
+        List<T> rows = List.copyOf(entities);
+        Map<String, Function<Object, Object>> getters = new ConcurrentHashMap<>();
+
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) return method.invoke(rows, args);
+
+                    String name = method.getName();
+                    if (name.equals("findAll") && (args == null || args.length == 0))
+                        return new ArrayList<>(rows);
+                    if (name.equals("findAllById") && args[0] instanceof Iterable<?> ids) {
+                        Set<Object> wanted = new HashSet<>();
+                        ids.forEach(wanted::add);
+                        return rows.stream().filter(row -> wanted.contains(idOf.apply(row))).toList();
+                    }
+                    if (name.startsWith("find") && name.contains("By"))
+                        return result(method, select(rows, properties(name), args, getters));
+
+                    throw new UnsupportedOperationException(name + " is not supported in memory.");
+                });
+    }
+
+    private static List<String> properties(String methodName) {
+        String conditions = methodName.substring(methodName.indexOf("By") + 2);
+        return Arrays.stream(conditions.split("And")).map(Introspector::decapitalize).toList();
+    }
+
+    private static <T> List<T> select(List<T> rows, List<String> properties, Object[] args,
+                                      Map<String, Function<Object, Object>> getters) {
+        List<T> selected = new ArrayList<>();
+        for (T row : rows) {
+            boolean matches = true;
+            for (int i = 0; i < properties.size() && matches; i++)
+                matches = Objects.equals(getter(row.getClass(), properties.get(i), getters).apply(row), args[i]);
+            if (matches) selected.add(row);
+        }
+        return selected;
+    }
+
+    private static Function<Object, Object> getter(Class<?> type, String property,
+                                                   Map<String, Function<Object, Object>> getters) {
+        return getters.computeIfAbsent(property, key -> {
+            try {
+                Method getter = type.getMethod("get" + Character.toUpperCase(key.charAt(0)) + key.substring(1));
+                return row -> {
+                    try {
+                        return getter.invoke(row);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                };
+            } catch (NoSuchMethodException e) {
+                throw new UnsupportedOperationException("No property " + key + " on " + type.getSimpleName() + ".");
+            }
+        });
+    }
+
+    private static Object result(Method method, List<?> selected) {
+        Class<?> returnType = method.getReturnType();
+        if (List.class.isAssignableFrom(returnType)) return selected;
+        if (returnType != Optional.class) return selected.isEmpty() ? null : selected.get(0);
+
+        boolean ofList = method.getGenericReturnType() instanceof ParameterizedType optional
+                && optional.getActualTypeArguments()[0] instanceof ParameterizedType element
+                && element.getRawType() == List.class;
+        if (ofList) return Optional.of(selected);
+        return selected.stream().findFirst();
+    }
+}
@@ -0,0 +1,78 @@
+package project.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import project.model.user.AuthUser;
+import project.model.user.SystemRole;
+import project.service.JwtService;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and the per-request verification of JwtAuthenticationFilter,
+ * with and without the verified-token cache. validateLegacyToken is the baseline: the filter
+ * used to call extractUserName and isTokenValid, three full parses, each rebuilding the key.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtBenchmark {
+
+    // copy of JwtService.SECRET_KEY for the baseline
+    private static final String SECRET_KEY = "3b57cb8b8adf4bef03e30355f90476085fd4bda3b7115830d9b08b4a720d6932";
+
+    private JwtService jwtService;
+    private AuthUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        user = AuthUser.builder()
+                .id("65f0c0ffee0000000000001")
+                .username("researcher")
+                .role(SystemRole.SYSTEM_RESEARCHER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateCachedToken() {
+        Claims claims = jwtService.parseToken(token);
+        return jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean validateUncachedToken() {
+        jwtService.getVerifiedTokens().invalidateAll();
+        Claims claims = jwtService.parseToken(token);
+        return jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean validateLegacyToken() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyClaims(token).getSubject().equals(user.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    private Claims legacyClaims(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
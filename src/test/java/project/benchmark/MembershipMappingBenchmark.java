@@ -0,0 +1,85 @@
+package project.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import project.model.dataset.UserDataset;
+import project.model.dataset.UserDatasetDetails;
+import project.model.project.UserProject;
+import project.model.project.UserProjectDetails;
+import project.model.user.AuthUser;
+import project.model.user.SystemRole;
+import project.service.*;
+import project.service.repository.AuthUserRepository;
+import project.service.repository.UserDatasetRepository;
+import project.service.repository.UserProjectRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The user-to-membership joins behind /api/projects/users/getByProjectId and
+ * /api/datasets/users/getByDatasetId, on in-memory repositories. {@code mapUserDetails} alone is
+ * measured separately from the full read path (repository lookups included).
+ * Collaborators the measured paths never touch are passed as null.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MembershipMappingBenchmark {
+
+    private static final String PROJECT_ID = "project";
+    private static final String DATASET_ID = "dataset";
+
+    @Param({"10", "100", "1000"})
+    public int members;
+
+    private ProjectService projectService;
+    private DatasetService datasetService;
+    private List<AuthUser> users;
+    private List<UserProject> userProjects;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>();
+        userProjects = new ArrayList<>();
+        List<UserDataset> userDatasets = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            String userId = "user-" + i;
+            users.add(AuthUser.builder().id(userId).username(userId).role(SystemRole.SYSTEM_USER).build());
+            userProjects.add(UserProject.builder().id("up-" + i).userId(userId).projectId(PROJECT_ID)
+                    .userRole(SystemRole.PROJECT_DATASET).build());
+            userDatasets.add(UserDataset.builder().id("ud-" + i).userId(userId).datasetId(DATASET_ID)
+                    .userRole(SystemRole.DATASET_LABEL).build());
+        }
+
+        AuthUserRepository userRepository = InMemoryRepositories.of(AuthUserRepository.class, users, AuthUser::getId);
+        UserProjectRepository userProjectRepository =
+                InMemoryRepositories.of(UserProjectRepository.class, userProjects, UserProject::getId);
+        UserDatasetRepository userDatasetRepository =
+                InMemoryRepositories.of(UserDatasetRepository.class, userDatasets, UserDataset::getId);
+
+        AuthUserService userService = new AuthUserService(userRepository, null, null, null, null);
+        UserProjectService userProjectService = new UserProjectService(userProjectRepository, userService, null);
+        UserDatasetService userDatasetService = new UserDatasetService(userDatasetRepository, userRepository, null, userService);
+
+        projectService = new ProjectService(userService, null, null, userProjectService, null);
+        datasetService = new DatasetService(null, userRepository, userDatasetService, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<UserProjectDetails> projectMapUserDetails() {
+        return projectService.mapUserDetails(users, userProjects);
+    }
+
+    @Benchmark
+    public List<UserProjectDetails> projectUserDetails() {
+        return projectService.getUserProjectDetailsByProjectId(PROJECT_ID);
+    }
+
+    @Benchmark
+    public List<UserDatasetDetails> datasetUserDetails() {
+        return datasetService.getUserDatasetDetailsByDatasetId(DATASET_ID);
+    }
+}